@@ -0,0 +1,504 @@
+package org.jocean.zkoss.apt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * generate [bean]_ZRows (org.jocean.zkoss.builder.RowLayout) for bean with @RowSource fields,
+ * and [bean]_ZCells (org.jocean.zkoss.builder.CellBindings) for bean with @CellSource/@CellStore methods.
+ *
+ * bean which can't be accessed directly from generated code (private fields, annotated members
+ * inherited from super class, inaccessible comparators ...) is skipped, and UIBuilders falls back
+ * to reflection for it.
+ * @author isdom
+ *
+ */
+@SupportedAnnotationTypes({
+    RendererProcessor.ROW_SOURCE,
+    RendererProcessor.CELL_SOURCE,
+    RendererProcessor.CELL_STORE})
+public class RendererProcessor extends AbstractProcessor {
+
+    static final String ROW_SOURCE = "org.jocean.zkoss.annotation.RowSource";
+    static final String CELL_SOURCE = "org.jocean.zkoss.annotation.CellSource";
+    static final String CELL_STORE = "org.jocean.zkoss.annotation.CellStore";
+    private static final String ROW_SOURCE_DUMMY = ROW_SOURCE + ".DUMMY";
+
+    private static final String ROWS_SUFFIX = "_ZRows";
+    private static final String CELLS_SUFFIX = "_ZCells";
+
+    private static final String ROW_LAYOUT = "org.jocean.zkoss.builder.RowLayout";
+    private static final String CELL_BINDINGS = "org.jocean.zkoss.builder.CellBindings";
+    private static final String ROW_PLAN = "org.jocean.zkoss.builder.impl.RowPlan";
+    private static final String SORT_KEY_COMPARATOR = "new org.jocean.zkoss.builder.SortKeyComparator";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+            final RoundEnvironment roundEnv) {
+        final Set<TypeElement> rowBeans = enclosingTypesOf(roundEnv, ROW_SOURCE);
+        final Set<TypeElement> cellBeans = enclosingTypesOf(roundEnv, CELL_SOURCE);
+        cellBeans.addAll(enclosingTypesOf(roundEnv, CELL_STORE));
+
+        for (TypeElement bean : rowBeans) {
+            final String reason = generateRows(bean);
+            if (null != reason) {
+                note(bean, "skip " + ROWS_SUFFIX + " for " + bean + ": " + reason);
+            }
+        }
+        for (TypeElement bean : cellBeans) {
+            final String reason = generateCells(bean);
+            if (null != reason) {
+                note(bean, "skip " + CELLS_SUFFIX + " for " + bean + ": " + reason);
+            }
+        }
+        return false;
+    }
+
+    private Set<TypeElement> enclosingTypesOf(final RoundEnvironment roundEnv, final String annotationName) {
+        final Set<TypeElement> types = new LinkedHashSet<>();
+        final TypeElement annotation = processingEnv.getElementUtils().getTypeElement(annotationName);
+        if (null != annotation) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                final Element enclosing = element.getEnclosingElement();
+                if (enclosing instanceof TypeElement) {
+                    types.add((TypeElement)enclosing);
+                }
+            }
+        }
+        return types;
+    }
+
+    private String generateRows(final TypeElement bean) {
+        final String beanReason = checkBean(bean, ROW_SOURCE);
+        if (null != beanReason) {
+            return beanReason;
+        }
+
+        final List<RowField> fields = new ArrayList<>();
+        for (Element member : bean.getEnclosedElements()) {
+            final AnnotationMirror rowsource = mirrorOf(member, ROW_SOURCE);
+            if (member.getKind() != ElementKind.FIELD || null == rowsource) {
+                continue;
+            }
+            if (member.getModifiers().contains(Modifier.PRIVATE)
+                || member.getModifiers().contains(Modifier.STATIC)) {
+                return "field " + member + " is private or static";
+            }
+            final Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(rowsource);
+            final RowField field = new RowField();
+            field.field = member.getSimpleName().toString();
+            field.name = (String)valueOf(values, "name");
+            field.index = (Integer)valueOf(values, "index");
+            field.asc = comparatorOf((TypeMirror)valueOf(values, "asc"), bean);
+            field.dsc = comparatorOf((TypeMirror)valueOf(values, "dsc"), bean);
+            if (null == field.asc || null == field.dsc) {
+                return "comparator of field " + member + " can't be instantiated directly";
+            }
+            final String sortKey = (String)valueOf(values, "sortKey");
+            if (null != sortKey && !sortKey.isEmpty()) {
+                field.sortKey = sortKey;
+            }
+            fields.add(field);
+        }
+        // stable sort, same as RowPlan
+        Collections.sort(fields, new Comparator<RowField>() {
+            @Override
+            public int compare(final RowField f1, final RowField f2) {
+                return Integer.compare(f1.index, f2.index);
+            }});
+
+        final String beanType = beanTypeOf(bean);
+        final StringBuilder sb = new StringBuilder();
+        final String generated = beginSource(sb, bean, ROWS_SUFFIX);
+        sb.append("public final class ").append(generated)
+            .append(" implements ").append(ROW_LAYOUT).append("<").append(beanType).append("> {\n\n");
+
+        // comparators created once and shared, compare fields directly
+        for (int idx = 0; idx < fields.size(); idx++) {
+            final RowField field = fields.get(idx);
+            if (null != field.sortKey && ("null".equals(field.asc) || "null".equals(field.dsc))) {
+                sb.append("    private static final java.util.Comparator _BY_").append(idx)
+                    .append(" = new java.util.Comparator() {\n");
+                sb.append("        @Override\n");
+                sb.append("        public int compare(final Object o1, final Object o2) {\n");
+                sb.append("            return ").append(ROW_PLAN).append(".compareValues(((").append(beanType)
+                    .append(")o1).").append(field.field).append(", ((").append(beanType)
+                    .append(")o2).").append(field.field).append(");\n");
+                sb.append("        }};\n");
+                if ("null".equals(field.asc)) {
+                    field.asc = SORT_KEY_COMPARATOR + "(" + literalOf(field.sortKey) + ", true, _BY_" + idx + ")";
+                }
+                if ("null".equals(field.dsc)) {
+                    field.dsc = SORT_KEY_COMPARATOR + "(" + literalOf(field.sortKey) + ", false, _BY_" + idx + ")";
+                }
+            }
+            if (!"null".equals(field.asc)) {
+                sb.append("    private static final java.util.Comparator _ASC_").append(idx)
+                    .append(" = ").append(field.asc).append(";\n");
+                field.asc = "_ASC_" + idx;
+            }
+            if (!"null".equals(field.dsc)) {
+                sb.append("    private static final java.util.Comparator _DSC_").append(idx)
+                    .append(" = ").append(field.dsc).append(";\n");
+                field.dsc = "_DSC_" + idx;
+            }
+        }
+        sb.append("\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public void buildColumns(final org.zkoss.zul.Columns columns) {\n");
+        for (RowField field : fields) {
+            sb.append("        columns.appendChild(").append(ROW_PLAN).append(".newColumn(")
+                .append(literalOf(field.name)).append(", ").append(field.asc).append(", ").append(field.dsc).append("));\n");
+        }
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public void buildHead(final org.zkoss.zul.Listhead head) {\n");
+        for (RowField field : fields) {
+            sb.append("        head.appendChild(").append(ROW_PLAN).append(".newHeader(")
+                .append(literalOf(field.name)).append(", ").append(field.asc).append(", ").append(field.dsc).append("));\n");
+        }
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public org.zkoss.zul.RowRenderer<").append(beanType).append("> rowRenderer() {\n");
+        sb.append("        return new org.zkoss.zul.RowRenderer<").append(beanType).append(">() {\n");
+        sb.append("            @Override\n");
+        sb.append("            public void render(final org.zkoss.zul.Row row, final ").append(beanType)
+            .append(" data, final int index) throws Exception {\n");
+        for (RowField field : fields) {
+            sb.append("                ").append(ROW_PLAN).append(".appendCell(row, data.").append(field.field).append(");\n");
+        }
+        sb.append("            }};\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public org.zkoss.zul.ListitemRenderer<").append(beanType).append("> itemRenderer() {\n");
+        sb.append("        return new org.zkoss.zul.ListitemRenderer<").append(beanType).append(">() {\n");
+        sb.append("            @Override\n");
+        sb.append("            public void render(final org.zkoss.zul.Listitem item, final ").append(beanType)
+            .append(" data, final int index) throws Exception {\n");
+        for (RowField field : fields) {
+            sb.append("                ").append(ROW_PLAN).append(".appendCell(item, data.").append(field.field).append(");\n");
+        }
+        sb.append("            }};\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        return writeSource(bean, generated, sb);
+    }
+
+    private String generateCells(final TypeElement bean) {
+        final String beanReason = checkBean(bean, CELL_SOURCE, CELL_STORE);
+        if (null != beanReason) {
+            return beanReason;
+        }
+
+        final List<ExecutableElement> getters = new ArrayList<>();
+        final List<ExecutableElement> setters = new ArrayList<>();
+        for (Element member : bean.getEnclosedElements()) {
+            final boolean isSource = null != mirrorOf(member, CELL_SOURCE);
+            final boolean isStore = null != mirrorOf(member, CELL_STORE);
+            if (member.getKind() != ElementKind.METHOD || (!isSource && !isStore)) {
+                continue;
+            }
+            if (!member.getModifiers().contains(Modifier.PUBLIC)) {
+                return "method " + member + " is not public";
+            }
+            if (isSource) {
+                if (!((ExecutableElement)member).getParameters().isEmpty()) {
+                    return "@CellSource method " + member + " has parameters";
+                }
+                getters.add((ExecutableElement)member);
+            }
+            // same as BeanGridLayout: setter with more than one parameter ignored
+            if (isStore && ((ExecutableElement)member).getParameters().size() <= 1) {
+                setters.add((ExecutableElement)member);
+            }
+        }
+
+        final String beanType = beanTypeOf(bean);
+        final StringBuilder sb = new StringBuilder();
+        final String generated = beginSource(sb, bean, CELLS_SUFFIX);
+        sb.append("public final class ").append(generated)
+            .append(" implements ").append(CELL_BINDINGS).append(" {\n\n");
+
+        final StringBuilder names = new StringBuilder();
+        final StringBuilder rows = new StringBuilder();
+        final StringBuilder cols = new StringBuilder();
+        final StringBuilder components = new StringBuilder();
+        final StringBuilder hasSetters = new StringBuilder();
+        final StringBuilder setterTypes = new StringBuilder();
+        final StringBuilder gets = new StringBuilder();
+        final StringBuilder sets = new StringBuilder();
+        for (int idx = 0; idx < getters.size(); idx++) {
+            final ExecutableElement getter = getters.get(idx);
+            final Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(mirrorOf(getter, CELL_SOURCE));
+            final String name = (String)valueOf(values, "name");
+            final String sep = idx > 0 ? ", " : "";
+            names.append(sep).append(literalOf(name));
+            rows.append(sep).append(valueOf(values, "row"));
+            cols.append(sep).append(valueOf(values, "col"));
+            components.append(sep).append(erasureOf((TypeMirror)valueOf(values, "component"))).append(".class");
+            gets.append("        case ").append(idx).append(": return ((").append(beanType).append(")bean).")
+                .append(getter.getSimpleName()).append("();\n");
+
+            final ExecutableElement setter = findSetter(setters, name);
+            hasSetters.append(sep).append(null != setter);
+            if (null != setter && setter.getParameters().size() == 1) {
+                final String type = erasureOf(setter.getParameters().get(0).asType());
+                setterTypes.append(sep).append(type).append(".class");
+                sets.append("        case ").append(idx).append(": ((").append(beanType).append(")bean).")
+                    .append(setter.getSimpleName()).append("((").append(type).append(")value); return;\n");
+            } else {
+                setterTypes.append(sep).append("null");
+            }
+        }
+        sb.append("    private static final String[] _NAMES = new String[]{").append(names).append("};\n");
+        sb.append("    private static final int[] _ROWS = new int[]{").append(rows).append("};\n");
+        sb.append("    private static final int[] _COLS = new int[]{").append(cols).append("};\n");
+        sb.append("    private static final Class[] _COMPONENTS = new Class[]{").append(components).append("};\n");
+        sb.append("    private static final boolean[] _HAS_SETTERS = new boolean[]{").append(hasSetters).append("};\n");
+        sb.append("    private static final Class[] _SETTER_TYPES = new Class[]{").append(setterTypes).append("};\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public int size() {\n");
+        sb.append("        return _NAMES.length;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public String name(final int idx) {\n");
+        sb.append("        return _NAMES[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public int row(final int idx) {\n");
+        sb.append("        return _ROWS[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public int col(final int idx) {\n");
+        sb.append("        return _COLS[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public Class component(final int idx) {\n");
+        sb.append("        return _COMPONENTS[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public Object getValue(final int idx, final Object bean) {\n");
+        sb.append("        switch (idx) {\n");
+        sb.append(gets);
+        sb.append("        default: throw new IndexOutOfBoundsException(String.valueOf(idx));\n");
+        sb.append("        }\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public boolean hasSetter(final int idx) {\n");
+        sb.append("        return _HAS_SETTERS[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public Class setterType(final int idx) {\n");
+        sb.append("        return _SETTER_TYPES[idx];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public void setValue(final int idx, final Object bean, final Object value) {\n");
+        sb.append("        switch (idx) {\n");
+        sb.append(sets);
+        sb.append("        default: throw new UnsupportedOperationException(\"no setter for cell \" + idx);\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        return writeSource(bean, generated, sb);
+    }
+
+    private ExecutableElement findSetter(final List<ExecutableElement> setters, final String name) {
+        for (ExecutableElement setter : setters) {
+            if (name.equals(valueOf(mirrorOf(setter, CELL_STORE), "name"))) {
+                return setter;
+            }
+        }
+        return null;
+    }
+
+    private String erasureOf(final TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String checkBean(final TypeElement bean, final String... annotations) {
+        if (bean.getKind() != ElementKind.CLASS) {
+            return "not a class";
+        }
+        for (Element e = bean; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return "class is private";
+            }
+            if (((TypeElement)e).getNestingKind() == NestingKind.MEMBER
+                && !e.getModifiers().contains(Modifier.STATIC)) {
+                return "inner class is not static";
+            }
+            if (((TypeElement)e).getNestingKind() == NestingKind.LOCAL
+                || ((TypeElement)e).getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local or anonymous class";
+            }
+        }
+        for (TypeMirror superType = bean.getSuperclass();
+                superType.getKind() == TypeKind.DECLARED; ) {
+            final TypeElement superElement = (TypeElement)((DeclaredType)superType).asElement();
+            for (Element member : superElement.getEnclosedElements()) {
+                for (String annotation : annotations) {
+                    if (null != mirrorOf(member, annotation)) {
+                        return "annotated members inherited from " + superElement;
+                    }
+                }
+            }
+            superType = superElement.getSuperclass();
+        }
+        return null;
+    }
+
+    private String comparatorOf(final TypeMirror type, final TypeElement bean) {
+        final TypeElement cmp = (TypeElement)((DeclaredType)type).asElement();
+        if (cmp.getQualifiedName().contentEquals(ROW_SOURCE_DUMMY)) {
+            return "null";
+        }
+        if (cmp.getModifiers().contains(Modifier.ABSTRACT)
+            || null != checkBean(cmp)
+            || !isAccessibleFrom(cmp, bean)) {
+            return null;
+        }
+        for (Element member : cmp.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.CONSTRUCTOR
+                && ((ExecutableElement)member).getParameters().isEmpty()
+                && isAccessibleFrom(member, bean)) {
+                return "new " + cmp.getQualifiedName() + "()";
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessibleFrom(final Element element, final TypeElement bean) {
+        if (element.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !element.getModifiers().contains(Modifier.PRIVATE)
+            && processingEnv.getElementUtils().getPackageOf(element)
+                .equals(processingEnv.getElementUtils().getPackageOf(bean));
+    }
+
+    private String beanTypeOf(final TypeElement bean) {
+        return erasureOf(bean.asType());
+    }
+
+    private String beginSource(final StringBuilder sb, final TypeElement bean, final String suffix) {
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(bean);
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(bean).toString();
+        if (!pkg.isUnnamed()) {
+            sb.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        sb.append("/**\n * generated by ").append(getClass().getName())
+            .append(" for ").append(bean.getQualifiedName()).append(", DO NOT EDIT.\n */\n");
+        sb.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        return (pkg.isUnnamed() ? binaryName
+                : binaryName.substring(pkg.getQualifiedName().length() + 1)) + suffix;
+    }
+
+    private String writeSource(final TypeElement bean, final String generated, final StringBuilder sb) {
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(bean);
+        final String fullname = pkg.isUnnamed() ? generated : pkg.getQualifiedName() + "." + generated;
+        try (final Writer writer = processingEnv.getFiler().createSourceFile(fullname, bean).openWriter()) {
+            writer.write(sb.toString());
+            return null;
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "can't write " + fullname + ", detail: " + e, bean);
+            return "write failed";
+        }
+    }
+
+    private void note(final Element element, final String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, msg, element);
+    }
+
+    private static AnnotationMirror mirrorOf(final Element element, final String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement)mirror.getAnnotationType().asElement())
+                    .getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static Object valueOf(final AnnotationMirror mirror, final String name) {
+        return valueOf(mirror.getElementValues(), name);
+    }
+
+    private static Object valueOf(final Map<? extends ExecutableElement, ? extends AnnotationValue> values,
+            final String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String literalOf(final String value) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':  sb.append("\\\""); break;
+            case '\\': sb.append("\\\\"); break;
+            case '\n': sb.append("\\n"); break;
+            case '\r': sb.append("\\r"); break;
+            case '\t': sb.append("\\t"); break;
+            default:
+                if (c < 0x20 || c > 0x7e) {
+                    sb.append(String.format("\\u%04x", (int)c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static class RowField {
+        String field;
+        String name;
+        int index;
+        String asc;
+        String dsc;
+        String sortKey;
+    }
+}
@@ -0,0 +1,18 @@
+package org.jocean.jetty;
+
+import java.io.IOException;
+
+/**
+ * encode whole content once for ResourceCacheHandler, eg: gzip, br (by external library).
+ * @author isdom
+ *
+ */
+public interface ContentEncoder {
+
+    /**
+     * @return token of Content-Encoding / Accept-Encoding, eg: "gzip"
+     */
+    public String name();
+
+    public byte[] encode(final byte[] content) throws IOException;
+}
@@ -0,0 +1,31 @@
+package org.jocean.jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip with best compression, affordable since content encoded only once.
+ * @author isdom
+ *
+ */
+public class GzipContentEncoder implements ContentEncoder {
+
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    @Override
+    public byte[] encode(final byte[] content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(bytes, 8192) {
+                {
+                    this.def.setLevel(Deflater.BEST_COMPRESSION);
+                }}) {
+            gzip.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -4,17 +4,32 @@ import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.jmx.MBeanContainer;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.util.component.Container;
 import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool.SizedThreadPool;
 import org.eclipse.jetty.webapp.Configuration;
 import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
 import org.jocean.idiom.BeanHolder;
 import org.jocean.idiom.BeanHolderAware;
 import org.jocean.idiom.ExceptionUtils;
@@ -23,6 +38,7 @@ import org.jocean.idiom.jmx.MBeanRegisterAware;
 import org.jocean.j2se.AppInfo;
 import org.jocean.j2se.PropertiesResourceAware;
 import org.jocean.j2se.PropertyPlaceholderConfigurerAware;
+import org.jocean.zkoss.util.ZkMetricsMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -71,7 +87,12 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
         }
         
         final InetSocketAddress address = new InetSocketAddress(this._host, this._port);
-        final Server server = new Server(address);
+        this._threadPool = buildThreadPool();
+        final Server server = new Server(this._threadPool);
+        final ServerConnector connector = buildConnector(server);
+        connector.setHost(address.getHostName());
+        connector.setPort(address.getPort());
+        server.setConnectors(new Connector[]{connector});
         
         // Setup JMX
         server.addEventListener(this._mbContainer);
@@ -120,9 +141,25 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
             public void beanRemoved(Container parent, Object child) {
             }});
         
-        final WebAppContext context = new WebAppContext();
-        context.setContextPath(this._contextPath);
+        this._startupTimings.clear();
         final String warfile =  warfile();
+        // quickstart-web.xml only generated into content-addressed extracted WAR, 
+        // and regenerated when configuration changed (see quickstartFingerprint)
+        final boolean quickstart = this._quickstart && null != warfile && this._warCache;
+        if (this._quickstart && !quickstart) {
+            LOG.warn("quickstart ignored for webapp {}: need WAR with warCache enabled", this._contextPath);
+        }
+        final WebAppContext context;
+        if (quickstart) {
+            // generate WEB-INF/quickstart-web.xml at first start (when missing), 
+            // then boot from it without descriptor parsing and jar scanning
+            final TimedQuickStartWebApp qswebapp = new TimedQuickStartWebApp(this._startupTimings);
+            qswebapp.setAutoPreconfigure(true);
+            context = qswebapp;
+        } else {
+            context = new TimedWebAppContext(this._startupTimings);
+        }
+        context.setContextPath(this._contextPath);
         
         if (null != warfile) {
             final File tmpdir = new File(System.getProperty("user.home") 
@@ -131,8 +168,19 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
             if (!tmpdir.exists()) {
                 tmpdir.mkdirs();
             }
-            context.setTempDirectory(tmpdir);
-            context.setWar(warfile);
+            if (this._warCache) {
+                final File extracted = WarExtractionCache.extractedDirOf(new File(warfile), 
+                        this._contextPath, new File(tmpdir, "webapps"));
+                // each instance use its own work directory, removed when stop, 
+                // left by killed instance removed at next start
+                this._workDir = WarExtractionCache.newWorkDir(tmpdir);
+                context.setTempDirectory(this._workDir.dir);
+                context.setPersistTempDirectory(false);
+                context.setWar(extracted.getAbsolutePath());
+            } else {
+                context.setTempDirectory(tmpdir);
+                context.setWar(warfile);
+            }
         } else {
             context.setDescriptor( "scripts/webcontent/WEB-INF/web.xml");
             context.setResourceBase( "scripts/webcontent/");
@@ -164,12 +212,138 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
 //                    ".*/[^/]*servlet-api-[^/]*\\.jar$|.*/javax.servlet.jsp.jstl-.*\\.jar$|.*/[^/]*taglibs.*\\.jar$|.*/[^/]*struts2-core-[^/]*\\.jar$" );
         }
         
-        server.setHandler(context);
+        final String containerIncludeJarPattern = 
+                jarPatternOf(this._containerIncludeJarPattern, this._jarScanExcludePattern);
+        if (null != containerIncludeJarPattern) {
+            context.setAttribute(WebInfConfiguration.CONTAINER_JAR_PATTERN, containerIncludeJarPattern);
+        }
+        // all WEB-INF/lib jars scanned by default, so exclude alone need include all
+        final String webInfIncludeJarPattern = jarPatternOf(
+                null == this._webInfIncludeJarPattern && null != this._jarScanExcludePattern 
+                    ? ".*" : this._webInfIncludeJarPattern, 
+                this._jarScanExcludePattern);
+        if (null != webInfIncludeJarPattern) {
+            context.setAttribute(WebInfConfiguration.WEBINF_JAR_PATTERN, webInfIncludeJarPattern);
+        }
+        
+        if (quickstart) {
+            ((TimedQuickStartWebApp)context).setConfigFingerprint(quickstartFingerprint());
+        }
+        
+        // filled by ZkMetricsMonitor inside webapp, shared by JDK type across classloader
+        context.setAttribute(ZkMetricsMonitor.LIVE_DESKTOPS_ATTR, this._liveDesktops);
+        context.setAttribute(ZkMetricsMonitor.LIVE_SESSIONS_ATTR, this._liveSessions);
+        context.setAttribute(ZkMetricsMonitor.PUSH_BACKLOG_ATTR, this._pushBacklog);
+        
+        server.setHandler(buildHandlerChain(context));
  
+        final long begin = System.nanoTime();
         server.start();
+        this._startupTimings.record("total", begin);
+        LOG.info("webapp {} started{}, phases(ms): {}", this._contextPath, 
+                quickstart ? " in quickstart mode" : "", this._startupTimings);
         this._server = server;
     }
 
+    /**
+     * everything (besides WAR content) affect generated quickstart-web.xml
+     */
+    private String quickstartFingerprint() {
+        return WarExtractionCache.sha256Of(Arrays.toString(this._configurationClasses)
+                + "|" + Arrays.toString(this._contextAttributes)
+                + "|" + this._containerIncludeJarPattern
+                + "|" + this._webInfIncludeJarPattern
+                + "|" + this._jarScanExcludePattern
+                + "|" + System.getProperty("java.class.path")
+                + "|" + Server.getVersion());
+    }
+
+    /**
+     * jetty match each comma delimited pattern against whole jar uri, and has no exclude pattern,
+     * so exclude is prepended to every include pattern as negative lookahead
+     */
+    private static String jarPatternOf(final String include, final String exclude) {
+        if (null == include) {
+            return null;
+        }
+        if (null == exclude) {
+            return include;
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (String pattern : StringUtils.commaDelimitedListToStringArray(include)) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append("(?!(?:").append(exclude).append(")$)(?:").append(pattern).append(')');
+        }
+        return sb.toString();
+    }
+    
+    private ThreadPool buildThreadPool() {
+        if (this._virtualThreads) {
+            if (VirtualThreadPool.isSupported()) {
+                LOG.info("webapp {} use virtual thread per task.", this._contextPath);
+                return new VirtualThreadPool();
+            }
+            LOG.warn("virtual thread not supported by current JDK, webapp {} use QueuedThreadPool instead.", 
+                    this._contextPath);
+        }
+        final QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setName("webapp" + this._contextPath.replace('/', '-'));
+        threadPool.setMaxThreads(this._maxThreads);
+        threadPool.setMinThreads(Math.min(this._minThreads, this._maxThreads));
+        threadPool.setIdleTimeout(this._threadIdleTimeout);
+        threadPool.setReservedThreads(this._reservedThreads);
+        return threadPool;
+    }
+    
+    private ServerConnector buildConnector(final Server server) {
+        final HttpConfiguration httpConfig = new HttpConfiguration();
+        httpConfig.setRequestHeaderSize(this._requestHeaderSize);
+        httpConfig.setResponseHeaderSize(this._responseHeaderSize);
+        httpConfig.setOutputBufferSize(this._outputBufferSize);
+        
+        final ConnectionFactory[] factories = this._h2c
+                ? new ConnectionFactory[]{new HttpConnectionFactory(httpConfig), 
+                        new HTTP2CServerConnectionFactory(httpConfig)}
+                : new ConnectionFactory[]{new HttpConnectionFactory(httpConfig)};
+        final ServerConnector connector = new ServerConnector(server, this._acceptors, this._selectors, factories);
+        connector.setAcceptQueueSize(this._acceptQueueSize);
+        connector.setIdleTimeout(this._connectorIdleTimeout);
+        return connector;
+    }
+    
+    private Handler buildHandlerChain(final WebAppContext context) throws Exception {
+        Handler handler = context;
+        if (this._gzip) {
+            final GzipHandler gzipHandler = new GzipHandler();
+            gzipHandler.setHandler(handler);
+            handler = gzipHandler;
+        }
+        if (this._resourceCache) {
+            final List<ContentEncoder> encoders = new ArrayList<>();
+            if (null != this._contentEncoders) {
+                for (String encoderClass : this._contentEncoders) {
+                    encoders.add((ContentEncoder)Class.forName(encoderClass.trim()).newInstance());
+                }
+            }
+            encoders.add(new GzipContentEncoder());
+            final ResourceCacheHandler cacheHandler = new ResourceCacheHandler(
+                    ("/".equals(this._contextPath) ? "" : this._contextPath) + "/zkau/web/",
+                    this._resourceCacheBytes, 
+                    this._resourceMaxAge, 
+                    encoders.toArray(new ContentEncoder[0]));
+            cacheHandler.setHandler(handler);
+            handler = cacheHandler;
+            this._resourceCacheHandler = cacheHandler;
+        }
+        final MetricsHandler metricsHandler = new MetricsHandler(
+                ("/".equals(this._contextPath) ? "" : this._contextPath) + "/zkau");
+        metricsHandler.setHandler(handler);
+        this._metricsHandler = metricsHandler;
+        return metricsHandler;
+    }
+    
     private String warfile() {
         final String appfilePrefix = System.getProperty("user.dir") 
                 + System.getProperty("file.separator")
@@ -190,6 +364,10 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
             this._server = null;
             server.stop();
         }
+        if (null != this._workDir) {
+            this._workDir.close();
+            this._workDir = null;
+        }
     }
     
     /**
@@ -291,6 +469,366 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
         return this._contextAttributes;
     }
 
+    public void setMinThreads(final int minThreads) {
+        this._minThreads = minThreads;
+    }
+    
+    public void setMaxThreads(final int maxThreads) {
+        this._maxThreads = maxThreads;
+    }
+    
+    /**
+     * @param threadIdleTimeout in milliseconds
+     */
+    public void setThreadIdleTimeout(final int threadIdleTimeout) {
+        this._threadIdleTimeout = threadIdleTimeout;
+    }
+    
+    /**
+     * @param reservedThreads -1 for heuristic by jetty, 0 to disable reserved threads
+     */
+    public void setReservedThreads(final int reservedThreads) {
+        this._reservedThreads = reservedThreads;
+    }
+    
+    /**
+     * @param virtualThreads true: run requests on virtual threads if JDK support, 
+     *          min/max/idle/reserved threads ignored
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this._virtualThreads = virtualThreads;
+    }
+    
+    /**
+     * @param acceptors -1 for heuristic by jetty
+     */
+    public void setAcceptors(final int acceptors) {
+        this._acceptors = acceptors;
+    }
+    
+    /**
+     * @param selectors -1 for heuristic by jetty
+     */
+    public void setSelectors(final int selectors) {
+        this._selectors = selectors;
+    }
+    
+    /**
+     * @param acceptQueueSize backlog of server socket, 0 for OS default
+     */
+    public void setAcceptQueueSize(final int acceptQueueSize) {
+        this._acceptQueueSize = acceptQueueSize;
+    }
+    
+    /**
+     * @param connectorIdleTimeout in milliseconds
+     */
+    public void setConnectorIdleTimeout(final long connectorIdleTimeout) {
+        this._connectorIdleTimeout = connectorIdleTimeout;
+    }
+    
+    public void setRequestHeaderSize(final int requestHeaderSize) {
+        this._requestHeaderSize = requestHeaderSize;
+    }
+    
+    public void setResponseHeaderSize(final int responseHeaderSize) {
+        this._responseHeaderSize = responseHeaderSize;
+    }
+    
+    public void setOutputBufferSize(final int outputBufferSize) {
+        this._outputBufferSize = outputBufferSize;
+    }
+    
+    /**
+     * @param h2c true: accept HTTP/2 cleartext (prior knowledge or upgrade) besides HTTP/1.1
+     */
+    public void setH2c(final boolean h2c) {
+        this._h2c = h2c;
+    }
+    
+    @Override
+    public boolean isH2c() {
+        return this._h2c;
+    }
+    
+    @Override
+    public int getAcceptQueueSize() {
+        return this._acceptQueueSize;
+    }
+    
+    @Override
+    public long getConnectorIdleTimeout() {
+        return this._connectorIdleTimeout;
+    }
+    
+    /**
+     * @param warCache true: reuse WAR extracted before if its content (SHA-256) not changed
+     */
+    public void setWarCache(final boolean warCache) {
+        this._warCache = warCache;
+    }
+    
+    /**
+     * @param resourceCache true: cache and precompress [contextPath]/zkau/web/... resources in memory
+     */
+    public void setResourceCache(final boolean resourceCache) {
+        this._resourceCache = resourceCache;
+    }
+    
+    public void setResourceCacheBytes(final long resourceCacheBytes) {
+        this._resourceCacheBytes = resourceCacheBytes;
+    }
+    
+    /**
+     * @param resourceMaxAge max-age in seconds of cached resources
+     */
+    public void setResourceMaxAge(final int resourceMaxAge) {
+        this._resourceMaxAge = resourceMaxAge;
+    }
+    
+    /**
+     * @param contentEncoderList comma delimited ContentEncoder class names preferred before gzip, 
+     *          eg: brotli encoder backed by external library
+     */
+    public void setContentEncoders(final String contentEncoderList) {
+        if (null != contentEncoderList && !contentEncoderList.isEmpty()) {
+            final String[] contentEncoders = 
+                    StringUtils.commaDelimitedListToStringArray(contentEncoderList);
+            if (null != contentEncoders && contentEncoders.length > 0) {
+                this._contentEncoders = contentEncoders;
+            }
+        }
+    }
+    
+    /**
+     * @param gzip true: gzip other responses on the fly by GzipHandler
+     */
+    public void setGzip(final boolean gzip) {
+        this._gzip = gzip;
+    }
+    
+    /**
+     * @param quickstart true: boot from precomputed WEB-INF/quickstart-web.xml, 
+     *          generated at first start of each new WAR, only for WAR with warCache enabled (ignored otherwise)
+     */
+    public void setQuickstart(final boolean quickstart) {
+        this._quickstart = quickstart;
+    }
+    
+    @Override
+    public boolean isQuickstart() {
+        return this._quickstart;
+    }
+    
+    /**
+     * @param pattern comma delimited regex of container classpath jars scanned for tlds, web-fragments etc.
+     */
+    public void setContainerIncludeJarPattern(final String pattern) {
+        this._containerIncludeJarPattern = StringUtils.hasText(pattern) ? pattern : null;
+    }
+    
+    /**
+     * @param pattern comma delimited regex of WEB-INF/lib jars scanned, all of them by default
+     */
+    public void setWebInfIncludeJarPattern(final String pattern) {
+        this._webInfIncludeJarPattern = StringUtils.hasText(pattern) ? pattern : null;
+    }
+    
+    /**
+     * @param pattern regex (without comma) of jars never scanned, eg: .*&#47;(rx|spring|guava)[^/]*\.jar
+     */
+    public void setJarScanExcludePattern(final String pattern) {
+        this._jarScanExcludePattern = StringUtils.hasText(pattern) ? pattern : null;
+    }
+    
+    @Override
+    public String[] getStartupPhaseMillis() {
+        return this._startupTimings.toArray();
+    }
+    
+    @Override
+    public long getRequests() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequests() : 0;
+    }
+    
+    @Override
+    public int getRequestsActive() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequestsActive() : 0;
+    }
+    
+    @Override
+    public int getRequestsActiveMax() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequestsActiveMax() : 0;
+    }
+    
+    @Override
+    public double getRequestsPerSecond() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequestsPerSecond() : 0.0d;
+    }
+    
+    @Override
+    public double getRequestTimeMean() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequestTimeMean() : 0.0d;
+    }
+    
+    @Override
+    public long getRequestTimeMax() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getRequestTimeMax() : 0;
+    }
+    
+    @Override
+    public long getLatencyP50() {
+        return latencyPercentile(50.0d);
+    }
+    
+    @Override
+    public long getLatencyP90() {
+        return latencyPercentile(90.0d);
+    }
+    
+    @Override
+    public long getLatencyP99() {
+        return latencyPercentile(99.0d);
+    }
+    
+    @Override
+    public long getLatencyP999() {
+        return latencyPercentile(99.9d);
+    }
+    
+    private long latencyPercentile(final double percentile) {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getLatencyPercentile(percentile) : 0;
+    }
+    
+    @Override
+    public long getResponsesBytesTotal() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getResponsesBytesTotal() : 0;
+    }
+    
+    @Override
+    public int getResponses4xx() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getResponses4xx() : 0;
+    }
+    
+    @Override
+    public int getResponses5xx() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getResponses5xx() : 0;
+    }
+    
+    @Override
+    public long getStatsOnMs() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getStatsOnMs() : 0;
+    }
+    
+    @Override
+    public void resetStats() {
+        final MetricsHandler handler = this._metricsHandler;
+        if (null != handler) {
+            handler.statsReset();
+        }
+    }
+    
+    @Override
+    public double getAuRequestsPerSecond() {
+        final MetricsHandler handler = this._metricsHandler;
+        return null != handler ? handler.getAuRequestsPerSecond() : 0.0d;
+    }
+    
+    @Override
+    public long getLiveDesktops() {
+        return this._liveDesktops.get();
+    }
+    
+    @Override
+    public long getLiveSessions() {
+        return this._liveSessions.get();
+    }
+    
+    @Override
+    public long getPushBacklog() {
+        return this._pushBacklog.get();
+    }
+    
+    @Override
+    public long getResourceCacheHits() {
+        final ResourceCacheHandler handler = this._resourceCacheHandler;
+        return null != handler ? handler.getHitCount() : 0;
+    }
+    
+    @Override
+    public long getResourceCacheMisses() {
+        final ResourceCacheHandler handler = this._resourceCacheHandler;
+        return null != handler ? handler.getMissCount() : 0;
+    }
+    
+    @Override
+    public long getResourceCachedBytes() {
+        final ResourceCacheHandler handler = this._resourceCacheHandler;
+        return null != handler ? handler.getCachedBytes() : 0;
+    }
+    
+    @Override
+    public String getThreadPoolType() {
+        final ThreadPool threadPool = this._threadPool;
+        return null != threadPool ? threadPool.getClass().getSimpleName() : null;
+    }
+    
+    @Override
+    public int getThreads() {
+        final ThreadPool threadPool = this._threadPool;
+        return null != threadPool ? threadPool.getThreads() : 0;
+    }
+    
+    @Override
+    public int getIdleThreads() {
+        final ThreadPool threadPool = this._threadPool;
+        return null != threadPool ? threadPool.getIdleThreads() : 0;
+    }
+    
+    @Override
+    public int getBusyThreads() {
+        final ThreadPool threadPool = this._threadPool;
+        if (threadPool instanceof QueuedThreadPool) {
+            return ((QueuedThreadPool)threadPool).getBusyThreads();
+        }
+        return null != threadPool ? threadPool.getThreads() - threadPool.getIdleThreads() : 0;
+    }
+    
+    @Override
+    public int getMaxThreads() {
+        final ThreadPool threadPool = this._threadPool;
+        return threadPool instanceof SizedThreadPool ? ((SizedThreadPool)threadPool).getMaxThreads() : -1;
+    }
+    
+    @Override
+    public int getQueuedJobs() {
+        final ThreadPool threadPool = this._threadPool;
+        return threadPool instanceof QueuedThreadPool ? ((QueuedThreadPool)threadPool).getQueueSize() : 0;
+    }
+    
+    @Override
+    public double getThreadUtilization() {
+        final ThreadPool threadPool = this._threadPool;
+        return threadPool instanceof QueuedThreadPool ? ((QueuedThreadPool)threadPool).getUtilizationRate() : 0.0d;
+    }
+    
+    @Override
+    public boolean isLowOnThreads() {
+        final ThreadPool threadPool = this._threadPool;
+        return null != threadPool && threadPool.isLowOnThreads();
+    }
+    
     @Inject
     private AppInfo _appinfo;
     
@@ -311,4 +849,40 @@ public class JettyWebapp implements MBeanRegisterAware, WebappMXBean,
     private Properties _propertiesResource;
     private BeanHolder _beanHolder;
     private Server _server;
+    
+    private int _minThreads = 8;
+    private int _maxThreads = 200;
+    private int _threadIdleTimeout = 60000;
+    private int _reservedThreads = -1;
+    private boolean _virtualThreads = false;
+    private volatile ThreadPool _threadPool;
+    
+    private int _acceptors = -1;
+    private int _selectors = -1;
+    private int _acceptQueueSize = 0;
+    private long _connectorIdleTimeout = 30000;
+    private int _requestHeaderSize = 8192;
+    private int _responseHeaderSize = 8192;
+    private int _outputBufferSize = 32768;
+    private boolean _h2c = false;
+    
+    private boolean _warCache = true;
+    private boolean _resourceCache = false;
+    private long _resourceCacheBytes = 64 * 1024 * 1024;
+    private int _resourceMaxAge = 365 * 24 * 3600;
+    private String[] _contentEncoders;
+    private boolean _gzip = false;
+    private volatile ResourceCacheHandler _resourceCacheHandler;
+    
+    private boolean _quickstart = false;
+    private String _containerIncludeJarPattern;
+    private String _webInfIncludeJarPattern;
+    private String _jarScanExcludePattern;
+    private final StartupTimings _startupTimings = new StartupTimings();
+    private WarExtractionCache.WorkDir _workDir;
+    
+    private volatile MetricsHandler _metricsHandler;
+    private final AtomicLong _liveDesktops = new AtomicLong(0);
+    private final AtomicLong _liveSessions = new AtomicLong(0);
+    private final AtomicLong _pushBacklog = new AtomicLong(0);
 }
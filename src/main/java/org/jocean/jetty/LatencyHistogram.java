@@ -0,0 +1,85 @@
+package org.jocean.jetty;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free histogram of latency in milliseconds with fixed memory:
+ * values below 8 counted exactly, others in 8 sub-buckets per power of two (error within 12.5%),
+ * values beyond 2^31 ms counted in last bucket.
+ * @author isdom
+ *
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXP = 30;
+    private static final int BUCKETS = (MAX_EXP - SUB_BITS + 2) * SUB_COUNT;
+
+    public void record(final long millis) {
+        this._counts.incrementAndGet(indexOf(Math.max(0, millis)));
+    }
+
+    public void reset() {
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            this._counts.set(idx, 0);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            count += this._counts.get(idx);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile in (0, 100], eg: 99.9
+     * @return upper bound of bucket contains the percentile, 0 if nothing recorded
+     */
+    public long getPercentile(final double percentile) {
+        // snapshot, concurrent record may make it slightly stale, never inconsistent in sum
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            counts[idx] = this._counts.get(idx);
+            total += counts[idx];
+        }
+        if (0 == total) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long)Math.ceil(total * Math.min(percentile, 100.0d) / 100.0d));
+        long seen = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            seen += counts[idx];
+            if (seen >= rank) {
+                return upperBoundOf(idx);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_COUNT) {
+            return (int)value;
+        }
+        final int exp = 63 - Long.numberOfLeadingZeros(value);
+        if (exp > MAX_EXP) {
+            return BUCKETS - 1;
+        }
+        final int sub = (int)(value >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    static long upperBoundOf(final int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        final int exp = index / SUB_COUNT + SUB_BITS - 1;
+        final long sub = index % SUB_COUNT;
+        return ((SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    private final AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+}
@@ -0,0 +1,56 @@
+package org.jocean.jetty;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+
+/**
+ * StatisticsHandler (in-flight requests, response bytes, status counts ...) plus
+ * latency percentiles and requests per second, ZK AU requests (auPrefix, eg: [contextPath]/zkau)
+ * counted separately, static resources under [auPrefix]/web/ excluded from AU.
+ * @author isdom
+ *
+ */
+public class MetricsHandler extends StatisticsHandler {
+
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    public MetricsHandler(final String auPrefix) {
+        this._auPrefix = auPrefix;
+        this._auResourcePrefix = auPrefix + "/web/";
+    }
+
+    @Override
+    protected void updateResponse(final Request request, final boolean failure) {
+        super.updateResponse(request, failure);
+        this._latency.record(System.currentTimeMillis() - request.getTimeStamp());
+        this._requestRate.mark();
+        final String uri = request.getRequestURI();
+        if (null != uri && uri.startsWith(this._auPrefix) && !uri.startsWith(this._auResourcePrefix)) {
+            this._auRate.mark();
+        }
+    }
+
+    @Override
+    public void statsReset() {
+        super.statsReset();
+        this._latency.reset();
+    }
+
+    public long getLatencyPercentile(final double percentile) {
+        return this._latency.getPercentile(percentile);
+    }
+
+    public double getRequestsPerSecond() {
+        return this._requestRate.getRate();
+    }
+
+    public double getAuRequestsPerSecond() {
+        return this._auRate.getRate();
+    }
+
+    private final String _auPrefix;
+    private final String _auResourcePrefix;
+    private final LatencyHistogram _latency = new LatencyHistogram();
+    private final RateMeter _requestRate = new RateMeter(RATE_WINDOW_SECONDS);
+    private final RateMeter _auRate = new RateMeter(RATE_WINDOW_SECONDS);
+}
@@ -0,0 +1,52 @@
+package org.jocean.jetty;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free events per second over last complete seconds, with fixed memory:
+ * one slot per second in a ring, slot reused (and cleared) when its second passed.
+ * a mark racing with slot reuse may be lost, acceptable for monitoring.
+ * @author isdom
+ *
+ */
+public class RateMeter {
+
+    public RateMeter(final int windowSeconds) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("windowSeconds must be positive");
+        }
+        this._windowSeconds = windowSeconds;
+        // one more slot for current (incomplete) second
+        this._seconds = new AtomicLongArray(windowSeconds + 1);
+        this._counts = new AtomicLongArray(windowSeconds + 1);
+    }
+
+    public void mark() {
+        final long second = System.currentTimeMillis() / 1000;
+        final int idx = (int)(second % this._seconds.length());
+        final long slotSecond = this._seconds.get(idx);
+        if (slotSecond != second && this._seconds.compareAndSet(idx, slotSecond, second)) {
+            this._counts.set(idx, 0);
+        }
+        this._counts.incrementAndGet(idx);
+    }
+
+    /**
+     * @return average events per second of last windowSeconds complete seconds
+     */
+    public double getRate() {
+        final long current = System.currentTimeMillis() / 1000;
+        long count = 0;
+        for (int idx = 0; idx < this._seconds.length(); idx++) {
+            final long second = this._seconds.get(idx);
+            if (second < current && second >= current - this._windowSeconds) {
+                count += this._counts.get(idx);
+            }
+        }
+        return (double)count / this._windowSeconds;
+    }
+
+    private final int _windowSeconds;
+    private final AtomicLongArray _seconds;
+    private final AtomicLongArray _counts;
+}
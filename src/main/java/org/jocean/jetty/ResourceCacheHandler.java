@@ -0,0 +1,640 @@
+package org.jocean.jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.eclipse.jetty.http.DateGenerator;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * serve GET/HEAD under pathPrefix (eg: [contextPath]/zkau/web/) from bounded in-memory cache:
+ * content generated by wrapped handler ONCE (by GET, HEAD miss passed through uncached), encoded once by each ContentEncoder,
+ * then served with ETag/Last-Modified/max-age as read-only ByteBuffer (HttpOutput.sendContent).
+ * concurrent misses of same key wait for the one generating.
+ * cache key contains resolved locale, since some ZK resources are localized,
+ * requests with query parameters not whitelisted (setCachedQueryParams) passed through uncached.
+ * @author isdom
+ *
+ */
+public class ResourceCacheHandler extends HandlerWrapper {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ResourceCacheHandler.class);
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final List<String> _UNCACHED_REQUEST_HEADERS =
+            Arrays.asList("accept-encoding", "if-none-match", "if-modified-since", "range", "if-range");
+
+    public ResourceCacheHandler(final String pathPrefix,
+            final long maxCacheBytes,
+            final int maxAgeSeconds,
+            final ContentEncoder... encoders) {
+        this._pathPrefix = pathPrefix;
+        this._maxCacheBytes = maxCacheBytes;
+        this._maxEntryBytes = maxCacheBytes / 4;
+        this._cacheControl = "public, max-age=" + maxAgeSeconds;
+        this._encoders = encoders;
+    }
+
+    @Override
+    public void handle(final String target, final Request baseRequest,
+            final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException, ServletException {
+        final String method = request.getMethod();
+        if (!("GET".equals(method) || "HEAD".equals(method))
+            || !baseRequest.getRequestURI().startsWith(this._pathPrefix)) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+        final String key = keyOf(baseRequest, request);
+        if (null == key) {
+            // query not cacheable, each variant generated by wrapped handler
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+        Entry entry = getEntry(key);
+        if (null == entry) {
+            this._missCount.incrementAndGet();
+            if ("HEAD".equals(method)) {
+                // response of HEAD has no body, never cache it
+                super.handle(target, baseRequest, request, response);
+                return;
+            }
+            final CompletableFuture<Entry> generating = new CompletableFuture<>();
+            final CompletableFuture<Entry> inflight = this._inflight.putIfAbsent(key, generating);
+            if (null != inflight) {
+                // same content generated by other request right now, wait and share it
+                entry = await(inflight);
+                if (null == entry) {
+                    super.handle(target, baseRequest, request, response);
+                    return;
+                }
+            } else {
+                try {
+                    entry = generate(target, baseRequest, request, response, key);
+                } finally {
+                    // null (not cached or failed) make waiters generate by themselves
+                    generating.complete(entry);
+                    this._inflight.remove(key, generating);
+                }
+                if (null == entry) {
+                    return;
+                }
+            }
+        } else {
+            this._hitCount.incrementAndGet();
+        }
+        serve(entry, baseRequest, request, response);
+    }
+
+    /**
+     * @return entry generated and cached, null if response not cacheable (already sent by replay)
+     */
+    private Entry generate(final String target, final Request baseRequest,
+            final HttpServletRequest request, final HttpServletResponse response, final String key)
+            throws IOException, ServletException {
+        final CapturingResponse captured = new CapturingResponse(response);
+        super.handle(target, baseRequest, new UncachedRequest(request), captured);
+        if (!baseRequest.isHandled()) {
+            return null;
+        }
+        final byte[] content = captured.content();
+        if (HttpServletResponse.SC_OK != captured._status || content.length > this._maxEntryBytes) {
+            captured.replay();
+            return null;
+        }
+        final Entry entry = buildEntry(captured.getContentType(), content);
+        putEntry(key, entry);
+        return entry;
+    }
+
+    private static Entry await(final CompletableFuture<Entry> inflight) {
+        try {
+            return inflight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * normalized key: uri, whitelisted query parameters (sorted) and resolved locale (some ZK
+     * resources are localized), null if query contains other parameter
+     */
+    private String keyOf(final Request baseRequest, final HttpServletRequest request) {
+        final StringBuilder key = new StringBuilder(baseRequest.getRequestURI());
+        if (null != request.getQueryString()) {
+            final Map<String, String[]> params = request.getParameterMap();
+            if (!this._cachedQueryParams.containsAll(params.keySet())) {
+                return null;
+            }
+            for (String name : new TreeSet<>(params.keySet())) {
+                for (String value : params.get(name)) {
+                    key.append('&').append(name).append('=').append(value);
+                }
+            }
+        }
+        return key.append('|').append(request.getLocale()).toString();
+    }
+
+    /**
+     * @param names query parameters part of cache key, requests with other parameters not cached
+     */
+    public void setCachedQueryParams(final String... names) {
+        this._cachedQueryParams = new HashSet<>(Arrays.asList(names));
+    }
+
+    private Entry buildEntry(final String contentType, final byte[] content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        final String tag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(content.length);
+        final List<Representation> encoded = new ArrayList<>();
+        for (ContentEncoder encoder : this._encoders) {
+            try {
+                final byte[] bytes = encoder.encode(content);
+                if (bytes.length < content.length) {
+                    encoded.add(new Representation(encoder.name(), bytes, tag));
+                }
+            } catch (Exception e) {
+                LOG.warn("exception when encode content by {}, detail: {}",
+                        encoder, ExceptionUtils.exception2detail(e));
+            }
+        }
+        return new Entry(contentType, new Representation(null, content, tag), encoded,
+                System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    private void serve(final Entry entry, final Request baseRequest,
+            final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final Representation rep = entry.select(request.getHeader("Accept-Encoding"));
+        baseRequest.setHandled(true);
+        response.setHeader("Vary", "Accept-Encoding, Accept-Language");
+        response.setHeader("Cache-Control", this._cacheControl);
+        response.setHeader("ETag", rep._etag);
+        response.setDateHeader("Last-Modified", entry._lastModified);
+
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        final boolean notModified = null != ifNoneMatch
+                ? ifNoneMatch.contains(rep._etag) || "*".equals(ifNoneMatch.trim())
+                : request.getDateHeader("If-Modified-Since") >= entry._lastModified;
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        if (null != entry._contentType) {
+            response.setContentType(entry._contentType);
+        }
+        if (null != rep._encoding) {
+            response.setHeader("Content-Encoding", rep._encoding);
+        }
+        response.setContentLength(rep._content.remaining());
+        if (!"HEAD".equals(request.getMethod())) {
+            baseRequest.getResponse().getHttpOutput().sendContent(rep._content.slice());
+        }
+    }
+
+    private synchronized Entry getEntry(final String key) {
+        return this._cache.get(key);
+    }
+
+    private synchronized void putEntry(final String key, final Entry entry) {
+        final Entry old = this._cache.put(key, entry);
+        if (null != old) {
+            this._cachedBytes -= old._bytes;
+        }
+        this._cachedBytes += entry._bytes;
+        final Iterator<Entry> iter = this._cache.values().iterator();
+        while ((this._cachedBytes > this._maxCacheBytes || this._cache.size() > MAX_ENTRIES) && iter.hasNext()) {
+            this._cachedBytes -= iter.next()._bytes;
+            iter.remove();
+        }
+    }
+
+    public synchronized int getCachedEntries() {
+        return this._cache.size();
+    }
+
+    public synchronized long getCachedBytes() {
+        return this._cachedBytes;
+    }
+
+    public long getHitCount() {
+        return this._hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this._missCount.get();
+    }
+
+    private static final class Representation {
+        Representation(final String encoding, final byte[] content, final String tag) {
+            this._encoding = encoding;
+            this._content = ByteBuffer.wrap(content).asReadOnlyBuffer();
+            this._etag = "\"" + tag + (null != encoding ? "-" + encoding : "") + "\"";
+        }
+
+        final String _encoding;
+        final ByteBuffer _content;
+        final String _etag;
+    }
+
+    private static final class Entry {
+        Entry(final String contentType, final Representation identity,
+                final List<Representation> encoded, final long lastModified) {
+            this._contentType = contentType;
+            this._identity = identity;
+            this._encoded = encoded;
+            this._lastModified = lastModified;
+            long bytes = identity._content.remaining();
+            for (Representation rep : encoded) {
+                bytes += rep._content.remaining();
+            }
+            this._bytes = bytes;
+        }
+
+        /**
+         * @return first encoded representation accepted, otherwise identity
+         */
+        Representation select(final String acceptEncoding) {
+            if (null != acceptEncoding) {
+                for (Representation rep : this._encoded) {
+                    if (accepts(acceptEncoding, rep._encoding)) {
+                        return rep;
+                    }
+                }
+            }
+            return this._identity;
+        }
+
+        private static boolean accepts(final String acceptEncoding, final String encoding) {
+            for (String token : acceptEncoding.split(",")) {
+                final String[] parts = token.trim().split(";");
+                if (encoding.equalsIgnoreCase(parts[0].trim())) {
+                    for (int idx = 1; idx < parts.length; idx++) {
+                        final String param = parts[idx].trim();
+                        if (param.startsWith("q=")) {
+                            try {
+                                return Double.parseDouble(param.substring(2)) > 0;
+                            } catch (NumberFormatException e) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        final String _contentType;
+        final Representation _identity;
+        final List<Representation> _encoded;
+        final long _lastModified;
+        final long _bytes;
+    }
+
+    /**
+     * hide headers make wrapped handler compress or answer 304/206
+     */
+    private static final class UncachedRequest extends HttpServletRequestWrapper {
+        UncachedRequest(final HttpServletRequest request) {
+            super(request);
+        }
+
+        private static boolean isHidden(final String name) {
+            return null != name && _UNCACHED_REQUEST_HEADERS.contains(name.toLowerCase(Locale.ENGLISH));
+        }
+
+        @Override
+        public String getHeader(final String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(final String name) {
+            return isHidden(name) ? Collections.<String>emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            final List<String> names = new ArrayList<>();
+            final Enumeration<String> all = super.getHeaderNames();
+            while (null != all && all.hasMoreElements()) {
+                final String name = all.nextElement();
+                if (!isHidden(name)) {
+                    names.add(name);
+                }
+            }
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public long getDateHeader(final String name) {
+            return isHidden(name) ? -1 : super.getDateHeader(name);
+        }
+
+        @Override
+        public int getIntHeader(final String name) {
+            return isHidden(name) ? -1 : super.getIntHeader(name);
+        }
+    }
+
+    /**
+     * keep status, content type, headers and body: headers only replayed for response not cached
+     * (cached response set its own)
+     */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+        CapturingResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        byte[] content() throws IOException {
+            if (null != this._writer) {
+                this._writer.flush();
+            }
+            return this._body.toByteArray();
+        }
+
+        void replay() throws IOException {
+            final HttpServletResponse response = (HttpServletResponse)getResponse();
+            for (String[] header : this._headers) {
+                response.addHeader(header[0], header[1]);
+            }
+            if (null != this._location) {
+                response.sendRedirect(this._location);
+                return;
+            }
+            if (this._error) {
+                response.sendError(this._status, this._errorMessage);
+                return;
+            }
+            response.setStatus(this._status);
+            if (null != this._contentType) {
+                response.setContentType(getContentType());
+            }
+            final byte[] content = content();
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+
+        @Override
+        public void setStatus(final int sc) {
+            this._status = sc;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void setStatus(final int sc, final String sm) {
+            this._status = sc;
+        }
+
+        @Override
+        public void sendError(final int sc) {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendError(final int sc, final String msg) {
+            this._status = sc;
+            this._error = true;
+            this._errorMessage = msg;
+        }
+
+        @Override
+        public void sendRedirect(final String location) {
+            this._status = HttpServletResponse.SC_FOUND;
+            this._location = location;
+        }
+
+        @Override
+        public int getStatus() {
+            return this._status;
+        }
+
+        @Override
+        public void setContentType(final String type) {
+            this._contentType = type;
+        }
+
+        /**
+         * @return content type with charset set by setCharacterEncoding (if not in content type)
+         */
+        @Override
+        public String getContentType() {
+            if (null != this._contentType && null != this._charset
+                && this._contentType.toLowerCase(Locale.ENGLISH).indexOf("charset=") < 0) {
+                return this._contentType + ";charset=" + this._charset;
+            }
+            return this._contentType;
+        }
+
+        @Override
+        public void setCharacterEncoding(final String charset) {
+            this._charset = charset;
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            if (null != this._charset) {
+                return this._charset;
+            }
+            final int idx = null != this._contentType ? this._contentType.toLowerCase(Locale.ENGLISH).indexOf("charset=") : -1;
+            return idx >= 0 ? this._contentType.substring(idx + 8).trim() : "ISO-8859-1";
+        }
+
+        @Override
+        public void setHeader(final String name, final String value) {
+            removeHeader(name);
+            addHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(final String name, final String value) {
+            if ("content-type".equalsIgnoreCase(name)) {
+                this._contentType = value;
+            } else if (!"content-length".equalsIgnoreCase(name) && null != value) {
+                this._headers.add(new String[]{name, value});
+            }
+        }
+
+        private void removeHeader(final String name) {
+            final Iterator<String[]> iter = this._headers.iterator();
+            while (iter.hasNext()) {
+                if (iter.next()[0].equalsIgnoreCase(name)) {
+                    iter.remove();
+                }
+            }
+        }
+
+        @Override
+        public boolean containsHeader(final String name) {
+            return null != getHeader(name);
+        }
+
+        @Override
+        public String getHeader(final String name) {
+            if ("content-type".equalsIgnoreCase(name)) {
+                return this._contentType;
+            }
+            for (String[] header : this._headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void setDateHeader(final String name, final long date) {
+            setHeader(name, DateGenerator.formatDate(date));
+        }
+
+        @Override
+        public void addDateHeader(final String name, final long date) {
+            addHeader(name, DateGenerator.formatDate(date));
+        }
+
+        @Override
+        public void setIntHeader(final String name, final int value) {
+            setHeader(name, Integer.toString(value));
+        }
+
+        @Override
+        public void addIntHeader(final String name, final int value) {
+            addHeader(name, Integer.toString(value));
+        }
+
+        @Override
+        public void setContentLength(final int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(final long len) {
+        }
+
+        @Override
+        public void setBufferSize(final int size) {
+        }
+
+        @Override
+        public void flushBuffer() {
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            this._status = HttpServletResponse.SC_OK;
+            this._contentType = null;
+            this._headers.clear();
+            this._location = null;
+            this._error = false;
+            this._errorMessage = null;
+        }
+
+        @Override
+        public void resetBuffer() {
+            this._body.reset();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return this._output;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (null == this._writer) {
+                this._writer = new PrintWriter(new OutputStreamWriter(this._body, getCharacterEncoding()));
+            }
+            return this._writer;
+        }
+
+        private final ByteArrayOutputStream _body = new ByteArrayOutputStream(8192);
+        private final ServletOutputStream _output = new ServletOutputStream() {
+            @Override
+            public void write(final int b) {
+                _body.write(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                _body.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                // buffered in memory, always ready for write
+                try {
+                    writeListener.onWritePossible();
+                } catch (IOException e) {
+                    writeListener.onError(e);
+                }
+            }};
+        private PrintWriter _writer;
+        private int _status = HttpServletResponse.SC_OK;
+        private String _contentType;
+        private String _charset;
+        private final List<String[]> _headers = new ArrayList<>();
+        private String _location;
+        private boolean _error = false;
+        private String _errorMessage;
+    }
+
+    private final String _pathPrefix;
+    private final long _maxCacheBytes;
+    private final long _maxEntryBytes;
+    private final String _cacheControl;
+    private final ContentEncoder[] _encoders;
+
+    private final Map<String, Entry> _cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<Entry>> _inflight = new ConcurrentHashMap<>();
+    private volatile Set<String> _cachedQueryParams = Collections.emptySet();
+    private long _cachedBytes = 0;
+    private final AtomicLong _hitCount = new AtomicLong(0);
+    private final AtomicLong _missCount = new AtomicLong(0);
+}
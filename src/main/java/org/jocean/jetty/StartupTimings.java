@@ -0,0 +1,62 @@
+package org.jocean.jetty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost of each webapp configuration phase, in order of first record
+ * @author isdom
+ *
+ */
+public class StartupTimings {
+
+    /**
+     * one configuration phase, usually call of super's method
+     */
+    public interface Phase {
+        public void run() throws Exception;
+    }
+
+    /**
+     * run phase and record its cost, even if failed
+     */
+    public void time(final String name, final Phase phase) throws Exception {
+        final long begin = System.nanoTime();
+        try {
+            phase.run();
+        } finally {
+            record(name, begin);
+        }
+    }
+
+    public synchronized void record(final String phase, final long beginNanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos);
+        final Long old = this._millis.get(phase);
+        this._millis.put(phase, null != old ? old + millis : millis);
+    }
+
+    public synchronized void clear() {
+        this._millis.clear();
+    }
+
+    /**
+     * @return as "phase=millis"
+     */
+    public synchronized String[] toArray() {
+        final List<String> phases = new ArrayList<>(this._millis.size());
+        for (Map.Entry<String, Long> entry : this._millis.entrySet()) {
+            phases.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return phases.toArray(new String[0]);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this._millis.toString();
+    }
+
+    private final Map<String, Long> _millis = new LinkedHashMap<>();
+}
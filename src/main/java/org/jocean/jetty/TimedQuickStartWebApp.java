@@ -0,0 +1,119 @@
+package org.jocean.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.eclipse.jetty.quickstart.QuickStartDescriptorGenerator;
+import org.eclipse.jetty.quickstart.QuickStartWebApp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * QuickStartWebApp records cost of each configuration phase into StartupTimings,
+ * phases of first start include generating WEB-INF/quickstart-web.xml,
+ * which written to temp file then renamed atomically, so instances sharing the extracted WAR
+ * never read half written one. descriptor regenerated when fingerprint of configuration changed
+ * @author isdom
+ *
+ */
+public class TimedQuickStartWebApp extends QuickStartWebApp {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(TimedQuickStartWebApp.class);
+
+    private static final String FINGERPRINT_NAME = "quickstart-web.fingerprint";
+
+    public TimedQuickStartWebApp(final StartupTimings timings) {
+        this._timings = timings;
+    }
+
+    @Override
+    public void preConfigure() throws Exception {
+        this._timings.time("preConfigure", super::preConfigure);
+    }
+
+    @Override
+    public void configure() throws Exception {
+        this._timings.time("configure", super::configure);
+    }
+
+    @Override
+    public void postConfigure() throws Exception {
+        this._timings.time("postConfigure", super::postConfigure);
+    }
+
+    @Override
+    protected void startContext() throws Exception {
+        this._timings.time("startContext", super::startContext);
+    }
+
+    /**
+     * @param fingerprint of effective configuration (configuration classes, jar patterns, classpath...),
+     *          quickstart-web.xml generated with other fingerprint is stale and regenerated
+     */
+    public void setConfigFingerprint(final String fingerprint) {
+        this._fingerprint = fingerprint;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (null != this._fingerprint && null != getWar()) {
+            invalidateStaleDescriptor(new File(getWar(), "WEB-INF"));
+        }
+        super.doStart();
+    }
+
+    private void invalidateStaleDescriptor(final File webinf) throws IOException {
+        final Path descriptor = new File(webinf, QuickStartDescriptorGenerator.DEFAULT_QUICKSTART_DESCRIPTOR_NAME).toPath();
+        if (!Files.exists(descriptor)) {
+            return;
+        }
+        final Path fingerprint = new File(webinf, FINGERPRINT_NAME).toPath();
+        final String generatedBy = Files.exists(fingerprint)
+                ? new String(Files.readAllBytes(fingerprint), StandardCharsets.UTF_8) : null;
+        if (!this._fingerprint.equals(generatedBy)) {
+            LOG.info("configuration changed ({} -> {}), regenerate {}", generatedBy, this._fingerprint, descriptor);
+            // moved away atomically, never seen half deleted
+            final Path stale = Files.createTempFile(webinf.toPath(), ".stale-", ".xml");
+            Files.move(descriptor, stale, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(stale);
+        }
+    }
+
+    @Override
+    public void generateQuickstartWebXml(final String extraXML) throws Exception {
+        final File webinf = getWebInf().getFile();
+        final Path tmp = Files.createTempFile(webinf.toPath(), ".quickstart-", ".xml");
+        try {
+            try (final OutputStream out = Files.newOutputStream(tmp)) {
+                new QuickStartDescriptorGenerator(this, extraXML, getOriginAttribute(), getGenerateOrigin())
+                    .generateQuickStartWebXml(out);
+            }
+            if (null != this._fingerprint) {
+                // fingerprint first: descriptor never seen paired with fingerprint of other configuration
+                writeAtomically(webinf.toPath(), FINGERPRINT_NAME, this._fingerprint.getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(tmp, new File(webinf, QuickStartDescriptorGenerator.DEFAULT_QUICKSTART_DESCRIPTOR_NAME).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeAtomically(final Path dir, final String name, final byte[] content) throws IOException {
+        final Path tmp = Files.createTempFile(dir, ".quickstart-", ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private final StartupTimings _timings;
+    private String _fingerprint;
+}
@@ -0,0 +1,37 @@
+package org.jocean.jetty;
+
+import org.eclipse.jetty.webapp.WebAppContext;
+
+/**
+ * WebAppContext records cost of each configuration phase into StartupTimings
+ * @author isdom
+ *
+ */
+public class TimedWebAppContext extends WebAppContext {
+
+    public TimedWebAppContext(final StartupTimings timings) {
+        this._timings = timings;
+    }
+
+    @Override
+    public void preConfigure() throws Exception {
+        this._timings.time("preConfigure", super::preConfigure);
+    }
+
+    @Override
+    public void configure() throws Exception {
+        this._timings.time("configure", super::configure);
+    }
+
+    @Override
+    public void postConfigure() throws Exception {
+        this._timings.time("postConfigure", super::postConfigure);
+    }
+
+    @Override
+    protected void startContext() throws Exception {
+        this._timings.time("startContext", super::startContext);
+    }
+
+    private final StartupTimings _timings;
+}
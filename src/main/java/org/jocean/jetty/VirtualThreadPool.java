@@ -0,0 +1,114 @@
+package org.jocean.jetty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * jetty ThreadPool run every task on a new virtual thread,
+ * Executors.newVirtualThreadPerTaskExecutor found by reflection (JDK 21+),
+ * so still build and run on JDK 8.
+ * @author isdom
+ *
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    public static boolean isSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("virtual thread not supported: "
+                    + ExceptionUtils.exception2detail(e));
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        this._executor = newVirtualThreadPerTaskExecutor();
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        final ExecutorService executor = this._executor;
+        this._executor = null;
+        if (null != executor) {
+            executor.shutdown();
+            if (!executor.awaitTermination(getStopTimeout(), TimeUnit.MILLISECONDS)) {
+                LOG.warn("{} tasks still running after stop timeout, interrupt them.", this._active.get());
+                executor.shutdownNow();
+            }
+        }
+        this._stopped.countDown();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        final ExecutorService executor = this._executor;
+        if (null == executor) {
+            throw new IllegalStateException(this + " not started");
+        }
+        this._active.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        _active.decrementAndGet();
+                    }
+                }});
+        } catch (RuntimeException e) {
+            this._active.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        this._stopped.await();
+    }
+
+    /**
+     * @return count of running tasks (one virtual thread each)
+     */
+    @Override
+    public int getThreads() {
+        return this._active.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    private volatile ExecutorService _executor;
+    private final AtomicInteger _active = new AtomicInteger(0);
+    private final CountDownLatch _stopped = new CountDownLatch(1);
+}
@@ -0,0 +1,281 @@
+package org.jocean.jetty;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * extracted WAR directory keyed by context path and SHA-256 of WAR content:
+ * unchanged WAR reuse the directory as is, new WAR extracted once into temp directory
+ * then moved atomically into place, so concurrent instances never see half extracted one.
+ * @author isdom
+ *
+ */
+public class WarExtractionCache {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(WarExtractionCache.class);
+
+    private static final int KEEP_VERSIONS = 3;
+    private static final String WORK_PREFIX = "work-";
+    private static final String WORK_LOCK = ".lock";
+    private static final long STALE_WORK_DIR_MILLIS = 60 * 1000L;
+
+    private WarExtractionCache() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * @return directory contains extracted content of war
+     */
+    public static File extractedDirOf(final File war, final String contextPath, final File baseDir)
+            throws IOException {
+        final String prefix = nameOf(contextPath) + "-";
+        final Path target = baseDir.toPath().resolve(prefix + sha256Of(war));
+        if (Files.isDirectory(target)) {
+            LOG.info("reuse extracted war {} for {}", target, war);
+            // mark as recent, see removeOldVersions
+            target.toFile().setLastModified(System.currentTimeMillis());
+            return target.toFile();
+        }
+        Files.createDirectories(baseDir.toPath());
+        final Path tmp = Files.createTempDirectory(baseDir.toPath(), ".extracting-" + prefix);
+        try {
+            final long begin = System.currentTimeMillis();
+            extract(war, tmp);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                LOG.info("extract war {} to {} cost {} ms", war, target, System.currentTimeMillis() - begin);
+            } catch (FileSystemException e) {
+                // extracted by other instance at the same time: rename(2) of directory onto
+                // non-empty one fail with ENOTEMPTY/EEXIST, not always mapped to specific subclass
+                if (!Files.isDirectory(target)) {
+                    throw e;
+                }
+                LOG.info("war {} extracted by other instance, reuse {}", war, target);
+            }
+        } finally {
+            if (Files.exists(tmp)) {
+                deleteQuietly(tmp);
+            }
+        }
+        removeOldVersions(baseDir.toPath(), prefix, target);
+        return target.toFile();
+    }
+
+    private static String nameOf(final String contextPath) {
+        final String name = contextPath.replaceAll("[^\\w.-]", "_");
+        return name.isEmpty() || "_".equals(name) ? "ROOT" : name;
+    }
+
+    static String sha256Of(final String text) {
+        final MessageDigest digest = newDigest();
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return hexOf(digest.digest());
+    }
+
+    static String sha256Of(final File file) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            final byte[] buf = new byte[64 * 1024];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                digest.update(buf, 0, len);
+            }
+        }
+        return hexOf(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hexOf(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * work directory of one running instance, locked (file lock) until closed
+     */
+    static final class WorkDir implements Closeable {
+        WorkDir(final File dir, final FileChannel channel) {
+            this.dir = dir;
+            this._channel = channel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // release lock, directory itself removed by jetty when stop
+            this._channel.close();
+        }
+
+        final File dir;
+        private final FileChannel _channel;
+    }
+
+    /**
+     * create and lock new work directory under baseDir, work directories left by killed instances
+     * (not locked and not recently created) removed first
+     */
+    static WorkDir newWorkDir(final File baseDir) throws IOException {
+        removeStaleWorkDirs(baseDir.toPath());
+        final Path dir = Files.createTempDirectory(baseDir.toPath(), WORK_PREFIX);
+        final FileChannel channel = FileChannel.open(dir.resolve(WORK_LOCK),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (null == channel.tryLock()) {
+                throw new IOException("can't lock new work directory " + dir);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new WorkDir(dir.toFile(), channel);
+    }
+
+    private static void removeStaleWorkDirs(final Path baseDir) {
+        final long createdBefore = System.currentTimeMillis() - STALE_WORK_DIR_MILLIS;
+        try (final DirectoryStream<Path> paths = Files.newDirectoryStream(baseDir, WORK_PREFIX + "*")) {
+            for (Path path : paths) {
+                // newly created one may not be locked yet
+                if (Files.isDirectory(path) && path.toFile().lastModified() < createdBefore && !isLocked(path)) {
+                    LOG.info("remove work directory {} left by stopped instance", path);
+                    deleteQuietly(path);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("exception when list work directories in {}, detail: {}",
+                    baseDir, ExceptionUtils.exception2detail(e));
+        }
+    }
+
+    private static boolean isLocked(final Path dir) {
+        final Path lockfile = dir.resolve(WORK_LOCK);
+        if (!Files.exists(lockfile)) {
+            return false;
+        }
+        try (final FileChannel channel = FileChannel.open(lockfile, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.tryLock();
+            if (null == lock) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // locked by instance in this jvm
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void extract(final File war, final Path dir) throws IOException {
+        final Path root = dir.toAbsolutePath().normalize();
+        try (final ZipFile zip = new ZipFile(war)) {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final Path path = root.resolve(entry.getName()).normalize();
+                if (!path.startsWith(root)) {
+                    throw new IOException("illegal entry " + entry.getName() + " in war " + war);
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                } else {
+                    Files.createDirectories(path.getParent());
+                    try (final InputStream in = zip.getInputStream(entry)) {
+                        Files.copy(in, path);
+                    }
+                    if (entry.getTime() > 0) {
+                        path.toFile().setLastModified(entry.getTime());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * keep most recent KEEP_VERSIONS extracted directories of the same context (instances still running
+     * during rolling restart may use them), delete others
+     */
+    private static void removeOldVersions(final Path baseDir, final String prefix, final Path current) {
+        final List<Path> versions = new ArrayList<>();
+        try (final DirectoryStream<Path> paths = Files.newDirectoryStream(baseDir, prefix + "*")) {
+            for (Path path : paths) {
+                if (Files.isDirectory(path) && !path.equals(current)
+                    && path.getFileName().toString().length() == prefix.length() + 64) {
+                    versions.add(path);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("exception when list extracted wars in {}, detail: {}",
+                    baseDir, ExceptionUtils.exception2detail(e));
+            return;
+        }
+        Collections.sort(versions, new Comparator<Path>() {
+            @Override
+            public int compare(final Path p1, final Path p2) {
+                return Long.compare(p2.toFile().lastModified(), p1.toFile().lastModified());
+            }});
+        for (int idx = KEEP_VERSIONS - 1; idx < versions.size(); idx++) {
+            LOG.info("remove old extracted war {}", versions.get(idx));
+            deleteQuietly(versions.get(idx));
+        }
+    }
+
+    private static void deleteQuietly(final Path dir) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+                        throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path d, final IOException exc)
+                        throws IOException {
+                    Files.delete(d);
+                    return FileVisitResult.CONTINUE;
+                }});
+        } catch (IOException e) {
+            LOG.warn("exception when delete {}, detail: {}",
+                    dir, ExceptionUtils.exception2detail(e));
+        }
+    }
+}
@@ -17,4 +17,99 @@ public interface WebappMXBean {
     public String[] getContextAttributes();
     
     public String[] getConfigurationClasses();
+    
+    public boolean isH2c();
+    
+    public int getAcceptQueueSize();
+    
+    public long getConnectorIdleTimeout();
+    
+    public long getResourceCacheHits();
+    
+    public long getResourceCacheMisses();
+    
+    public long getResourceCachedBytes();
+    
+    public String getThreadPoolType();
+    
+    public int getThreads();
+    
+    public int getIdleThreads();
+    
+    public int getBusyThreads();
+    
+    public int getMaxThreads();
+    
+    public int getQueuedJobs();
+    
+    public double getThreadUtilization();
+    
+    public boolean isLowOnThreads();
+    
+    public boolean isQuickstart();
+    
+    /**
+     * @return cost of each configuration phase of last start, as "phase=millis"
+     */
+    public String[] getStartupPhaseMillis();
+    
+    public long getRequests();
+    
+    /**
+     * @return requests in flight
+     */
+    public int getRequestsActive();
+    
+    public int getRequestsActiveMax();
+    
+    /**
+     * @return average requests completed per second of last 10 seconds
+     */
+    public double getRequestsPerSecond();
+    
+    public double getRequestTimeMean();
+    
+    public long getRequestTimeMax();
+    
+    /**
+     * @return latency percentiles in milliseconds since start or last resetStats
+     */
+    public long getLatencyP50();
+    
+    public long getLatencyP90();
+    
+    public long getLatencyP99();
+    
+    public long getLatencyP999();
+    
+    public long getResponsesBytesTotal();
+    
+    public int getResponses4xx();
+    
+    public int getResponses5xx();
+    
+    public long getStatsOnMs();
+    
+    public void resetStats();
+    
+    /**
+     * @return ZK AU requests (excluding [contextPath]/zkau/web/ resources) per second of last 10 seconds
+     */
+    public double getAuRequestsPerSecond();
+    
+    /**
+     * @return live desktops, maintained by ZkMetricsMonitor, which NOT registered automatically:
+     *          webapp must declare it as listener in its WEB-INF/zk.xml, otherwise always 0
+     */
+    public long getLiveDesktops();
+    
+    /**
+     * @return live sessions, maintained by ZkMetricsMonitor (see getLiveDesktops), otherwise always 0
+     */
+    public long getLiveSessions();
+    
+    /**
+     * @return actions queued by BoundedSubscriber not pushed to desktops yet
+     */
+    public long getPushBacklog();
 }
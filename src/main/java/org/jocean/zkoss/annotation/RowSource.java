@@ -23,4 +23,9 @@ public @interface RowSource {
     public abstract int index() default -1;
     public abstract Class<? extends Comparator<?>> asc() default DUMMY.class;
     public abstract Class<? extends Comparator<?>> dsc() default DUMMY.class;
+    /**
+     * when not empty and asc/dsc not set, column sorted by SortKeyComparator carry this key,
+     * which let sort-aware page fetcher ORDER BY it on backend.
+     */
+    public abstract String sortKey() default "";
 }
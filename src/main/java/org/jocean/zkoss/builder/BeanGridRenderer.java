@@ -8,4 +8,11 @@ import org.zkoss.zul.RowRenderer;
 public interface BeanGridRenderer<T> extends RowRenderer<T>, Disable, ComponentHub {
     public <C extends Component> C attachComponentToCell(final int row, final int col, final C comp);
     public ListModel<T> buildModel();
+    public GridLayout getLayout();
+    
+    /**
+     * unbind cells from models got from bean, called automatically when desktop cleanup
+     * if renderer built within Execution
+     */
+    public void dispose();
 }
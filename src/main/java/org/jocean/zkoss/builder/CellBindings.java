@@ -0,0 +1,37 @@
+package org.jocean.zkoss.builder;
+
+import org.zkoss.zk.ui.Component;
+
+/**
+ * @CellSource getters paired with their @CellStore setters, values of @CellSource
+ * and direct calls to getter/setter, generated by jocean-zkoss-apt as [bean class]_ZCells.
+ * @author isdom
+ *
+ */
+public interface CellBindings {
+    public static final String GENERATED_SUFFIX = "_ZCells";
+    
+    public int size();
+    
+    public String name(final int idx);
+    
+    public int row(final int idx);
+    
+    public int col(final int idx);
+    
+    public Class<? extends Component> component(final int idx);
+    
+    public Object getValue(final int idx, final Object bean);
+    
+    /**
+     * @return true if @CellStore for this cell 
+     */
+    public boolean hasSetter(final int idx);
+    
+    /**
+     * @return setter's parameter type or null if no @CellStore with one parameter for this cell 
+     */
+    public Class<?> setterType(final int idx);
+    
+    public void setValue(final int idx, final Object bean, final Object value);
+}
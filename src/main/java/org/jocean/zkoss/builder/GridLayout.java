@@ -0,0 +1,22 @@
+package org.jocean.zkoss.builder;
+
+/**
+ * read-only view of BeanGridRenderer's cell layout
+ * @author isdom
+ *
+ */
+public interface GridLayout {
+    
+    public int getRows();
+    
+    public int getCols();
+    
+    public boolean isOccupied(final int row, final int col);
+    
+    public int getOccupiedCount();
+    
+    /**
+     * @return @CellSource name of cell, null if empty or attached component
+     */
+    public String getCellName(final int row, final int col);
+}
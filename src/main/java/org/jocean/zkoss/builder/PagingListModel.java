@@ -0,0 +1,25 @@
+package org.jocean.zkoss.builder;
+
+import org.zkoss.zul.ListModel;
+import org.zkoss.zul.ext.Sortable;
+
+/**
+ * ListModel backed by paged fetch with multi-page LRU cache
+ * @author isdom
+ *
+ */
+public interface PagingListModel<T> extends ListModel<T>, Sortable<T> {
+    
+    public long getHitCount();
+    
+    public long getMissCount();
+    
+    public long getEvictionCount();
+    
+    public int getCachedPageCount();
+    
+    /**
+     * drop all cached pages and total size, fire STRUCTURE_CHANGED
+     */
+    public void invalidate();
+}
@@ -0,0 +1,24 @@
+package org.jocean.zkoss.builder;
+
+import org.zkoss.zul.Columns;
+import org.zkoss.zul.ListitemRenderer;
+import org.zkoss.zul.Listhead;
+import org.zkoss.zul.RowRenderer;
+
+/**
+ * columns/head builder and renderers for bean class with @RowSource fields,
+ * implemented by reflection or generated by jocean-zkoss-apt as [bean class]_ZRows.
+ * @author isdom
+ *
+ */
+public interface RowLayout<T> {
+    public static final String GENERATED_SUFFIX = "_ZRows";
+    
+    public void buildColumns(final Columns columns);
+    
+    public void buildHead(final Listhead head);
+    
+    public RowRenderer<T> rowRenderer();
+    
+    public ListitemRenderer<T> itemRenderer();
+}
@@ -0,0 +1,185 @@
+package org.jocean.zkoss.builder;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.jocean.zkoss.builder.impl.PageView;
+
+/**
+ * immutable in-memory dataset shared by many desktops: never sorted in place,
+ * each sort order served through an int[] permutation built once per Comparator
+ * (parallel sort for large dataset) and cached (LRU, at most maxCachedOrders).
+ * @author isdom
+ *
+ */
+public final class SharedDataset<T> {
+    
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int DEFAULT_MAX_CACHED_ORDERS = 16;
+    
+    /**
+     * @param array copied once, later changes of array not visible
+     */
+    public static <T> SharedDataset<T> of(final T[] array) {
+        return new SharedDataset<T>(array.clone(), DEFAULT_MAX_CACHED_ORDERS);
+    }
+    
+    public static <T> SharedDataset<T> of(final T[] array, final int maxCachedOrders) {
+        return new SharedDataset<T>(array.clone(), maxCachedOrders);
+    }
+    
+    private SharedDataset(final T[] array, final int maxCachedOrders) {
+        this._array = array;
+        this._maxCachedOrders = Math.max(1, maxCachedOrders);
+    }
+    
+    public int size() {
+        return this._array.length;
+    }
+    
+    public T get(final int index) {
+        return this._array[index];
+    }
+    
+    /**
+     * @return element at index of order defined by permutation, null permutation means natural order
+     */
+    public T get(final int[] permutation, final int index) {
+        return this._array[null != permutation ? permutation[index] : index];
+    }
+    
+    /**
+     * @return shared permutation for cmpr, DO NOT modify it
+     */
+    public int[] permutationOf(final Comparator<? super T> cmpr) {
+        synchronized (this._orders) {
+            final int[] cached = this._orders.get(cmpr);
+            if (null != cached) {
+                return cached;
+            }
+        }
+        // sort outside lock, concurrent first sorts of same Comparator build equal permutation
+        final int[] permutation = sortedPermutation(cmpr);
+        synchronized (this._orders) {
+            final int[] cached = this._orders.get(cmpr);
+            if (null != cached) {
+                return cached;
+            }
+            this._orders.put(cmpr, permutation);
+            return permutation;
+        }
+    }
+    
+    /**
+     * @return read-only view of [offset, offset+count) in order of permutation, clamped to dataset bounds
+     */
+    public List<T> page(final int[] permutation, final int offset, final int count) {
+        return PageView.ofPermuted(this._array, permutation, offset, count);
+    }
+    
+    private int[] sortedPermutation(final Comparator<? super T> cmpr) {
+        final int[] permutation = new int[this._array.length];
+        for (int idx = 0; idx < permutation.length; idx++) {
+            permutation[idx] = idx;
+        }
+        final IndexSort sort = new IndexSort(permutation, new int[permutation.length], 0, permutation.length, cmpr);
+        if (permutation.length >= PARALLEL_SORT_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(sort);
+        } else {
+            sort.compute();
+        }
+        return permutation;
+    }
+    
+    /**
+     * stable merge sort of int indexes by their elements, halves sorted in parallel 
+     * when large enough and running in ForkJoinPool, no boxing.
+     */
+    private final class IndexSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        IndexSort(final int[] indexes, final int[] buffer, final int from, final int to, 
+                final Comparator<? super T> cmpr) {
+            this._indexes = indexes;
+            this._buffer = buffer;
+            this._from = from;
+            this._to = to;
+            this._cmpr = cmpr;
+        }
+        
+        @Override
+        protected void compute() {
+            if (this._to - this._from <= INSERTION_SORT_THRESHOLD) {
+                insertionSort();
+                return;
+            }
+            final int mid = (this._from + this._to) >>> 1;
+            final IndexSort left = new IndexSort(this._indexes, this._buffer, this._from, mid, this._cmpr);
+            final IndexSort right = new IndexSort(this._indexes, this._buffer, mid, this._to, this._cmpr);
+            if (this._to - this._from >= PARALLEL_SORT_THRESHOLD && inForkJoinPool()) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+            merge(mid);
+        }
+        
+        private int compare(final int i1, final int i2) {
+            return this._cmpr.compare(_array[i1], _array[i2]);
+        }
+        
+        private void insertionSort() {
+            final int[] a = this._indexes;
+            for (int i = this._from + 1; i < this._to; i++) {
+                final int current = a[i];
+                int j = i - 1;
+                while (j >= this._from && compare(a[j], current) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = current;
+            }
+        }
+        
+        private void merge(final int mid) {
+            final int[] a = this._indexes;
+            if (compare(a[mid - 1], a[mid]) <= 0) {
+                // already in order
+                return;
+            }
+            System.arraycopy(a, this._from, this._buffer, this._from, this._to - this._from);
+            int left = this._from;
+            int right = mid;
+            for (int k = this._from; k < this._to; k++) {
+                // take left on tie, keep stable
+                if (right >= this._to || (left < mid && compare(this._buffer[left], this._buffer[right]) <= 0)) {
+                    a[k] = this._buffer[left++];
+                } else {
+                    a[k] = this._buffer[right++];
+                }
+            }
+        }
+        
+        private final int[] _indexes;
+        private final int[] _buffer;
+        private final int _from;
+        private final int _to;
+        private final Comparator<? super T> _cmpr;
+    }
+    
+    private final T[] _array;
+    private final int _maxCachedOrders;
+    private final Map<Comparator<? super T>, int[]> _orders = 
+            new LinkedHashMap<Comparator<? super T>, int[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Comparator<? super T>, int[]> eldest) {
+            return size() > _maxCachedOrders;
+        }};
+}
@@ -0,0 +1,63 @@
+package org.jocean.zkoss.builder;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Comparator carry sort key and direction of the column which triggered sort, 
+ * so sort-aware page fetcher can push sort down to backend (eg: indexed ORDER BY),
+ * and compare in memory with inMemory comparator as fallback.
+ * @author isdom
+ *
+ */
+public class SortKeyComparator<T> implements Comparator<T> {
+    
+    public SortKeyComparator(final String sortKey, final boolean ascending, 
+            final Comparator<? super T> inMemory) {
+        this._sortKey = sortKey;
+        this._ascending = ascending;
+        this._inMemory = inMemory;
+    }
+    
+    public String getSortKey() {
+        return this._sortKey;
+    }
+    
+    public boolean isAscending() {
+        return this._ascending;
+    }
+    
+    @Override
+    public int compare(final T o1, final T o2) {
+        if (null == this._inMemory) {
+            return 0;
+        }
+        return this._ascending ? this._inMemory.compare(o1, o2) : this._inMemory.compare(o2, o1);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this._sortKey) * 31 + (this._ascending ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (null == obj || getClass() != obj.getClass()) {
+            return false;
+        }
+        final SortKeyComparator<?> other = (SortKeyComparator<?>) obj;
+        return this._ascending == other._ascending && Objects.equals(this._sortKey, other._sortKey);
+    }
+
+    @Override
+    public String toString() {
+        return "SortKeyComparator [sortKey=" + _sortKey + ", ascending=" + _ascending + "]";
+    }
+
+    private final String _sortKey;
+    private final boolean _ascending;
+    private final Comparator<? super T> _inMemory;
+}
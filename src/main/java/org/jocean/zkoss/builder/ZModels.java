@@ -1,10 +1,16 @@
 package org.jocean.zkoss.builder;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
+import org.jocean.zkoss.builder.impl.AsyncPagedListModel;
+import org.jocean.zkoss.builder.impl.PageLoaders;
+import org.jocean.zkoss.builder.impl.PageView;
+import org.jocean.zkoss.builder.impl.PagedListModel;
+import org.jocean.zkoss.builder.impl.SharedDatasetListModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.lang.Objects;
@@ -15,7 +21,9 @@ import org.zkoss.zul.ext.Sortable;
 
 import rx.functions.Action1;
 import rx.functions.Func0;
+import rx.functions.Func1;
 import rx.functions.Func2;
+import rx.functions.Func4;
 
 public class ZModels {
     
@@ -27,11 +35,33 @@ public class ZModels {
         throw new IllegalStateException("No instances!");
     }
     
+    /**
+     * @return page fetcher return read-only view of array clamped to its bounds, no copying
+     */
     public static <T> Func2<Integer, Integer, List<T>> fetchPageOf(final T[] array) {
         return new Func2<Integer, Integer, List<T>>() {
             @Override
             public List<T> call(final Integer offset, final Integer count) {
-                return Arrays.asList(Arrays.copyOfRange(array, offset, offset + count));
+                return PageView.ofArray(array, offset, count);
+            }};
+    }
+    
+    /**
+     * @return page fetcher return read-only view of list clamped to its bounds, no copying
+     */
+    public static <T> Func2<Integer, Integer, List<T>> fetchPageOf(final List<T> list) {
+        return new Func2<Integer, Integer, List<T>>() {
+            @Override
+            public List<T> call(final Integer offset, final Integer count) {
+                return PageView.ofList(list, offset, count);
+            }};
+    }
+    
+    public static <T> Func0<Integer> fetchTotalSizeOf(final List<T> list) {
+        return new Func0<Integer>() {
+            @Override
+            public Integer call() {
+                return list.size();
             }};
     }
     
@@ -51,6 +81,30 @@ public class ZModels {
             }};
     }
     
+    /**
+     * build ListModel view of shared dataset, each model keeps its own sort order 
+     * by permutation cached in dataset, without copying or sorting data.
+     */
+    public static <T> ListModel<T> buildListModel(final SharedDataset<T> dataset) {
+        return new SharedDatasetListModel<T>(dataset);
+    }
+    
+    public static <T> Func2<Integer, Integer, List<T>> fetchPageOf(final SharedDataset<T> dataset) {
+        return new Func2<Integer, Integer, List<T>>() {
+            @Override
+            public List<T> call(final Integer offset, final Integer count) {
+                return dataset.page(null, offset, count);
+            }};
+    }
+    
+    public static <T> Func0<Integer> fetchTotalSizeOf(final SharedDataset<T> dataset) {
+        return new Func0<Integer>() {
+            @Override
+            public Integer call() {
+                return dataset.size();
+            }};
+    }
+    
     public static <T> ListModel<T> buildListModel(
             final int countPerPage,
             final Func2<Integer, Integer, List<T>> fetchPage,
@@ -59,6 +113,81 @@ public class ZModels {
         return buildListModel(countPerPage, fetchPage, fetchTotalSize, null);
     }
     
+    /**
+     * build ListModel cache at most maxCachedPages pages (LRU), and when page missed,
+     * fetch it together with readAheadPages pages before and after in one fetchPage call.
+     */
+    public static <T> PagingListModel<T> buildListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func2<Integer, Integer, List<T>> fetchPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel
+            ) {
+        return new PagedListModel<T>(countPerPage, maxCachedPages, readAheadPages, 
+                fetchPage, fetchTotalSize, sortModel);
+    }
+    
+    /**
+     * build PagingListModel which call fetchPage/fetchTotalSize on executor, 
+     * elements not loaded yet returned as placeholder, and when page arrived,
+     * CONTENTS_CHANGED fired via server push.
+     * @param executor null means {@link PageLoaders#defaultExecutor()}
+     * @param placeholder build placeholder element for index, null means null element
+     */
+    public static <T> PagingListModel<T> buildAsyncListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func2<Integer, Integer, List<T>> fetchPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel,
+            final Executor executor,
+            final Func1<Integer, T> placeholder
+            ) {
+        return new AsyncPagedListModel<T>(countPerPage, maxCachedPages, readAheadPages, 
+                fetchPage, fetchTotalSize, sortModel, 
+                null != executor ? executor : PageLoaders.defaultExecutor(), 
+                placeholder);
+    }
+    
+    /**
+     * build PagingListModel push sort down to fetchSortedPage: called as (offset, count, sortKey, ascending),
+     * sortKey from @RowSource(sortKey=...) of the column triggered sort, null means natural order.
+     * @param sortModel in memory fallback for column sorted by other Comparator, can be null
+     */
+    public static <T> PagingListModel<T> buildSortedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func4<Integer, Integer, String, Boolean, List<T>> fetchSortedPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel
+            ) {
+        return new PagedListModel<T>(countPerPage, maxCachedPages, readAheadPages, 
+                fetchSortedPage, fetchTotalSize, sortModel);
+    }
+    
+    /**
+     * async version of {@link #buildSortedListModel}, see {@link #buildAsyncListModel}
+     */
+    public static <T> PagingListModel<T> buildAsyncSortedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func4<Integer, Integer, String, Boolean, List<T>> fetchSortedPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel,
+            final Executor executor,
+            final Func1<Integer, T> placeholder
+            ) {
+        return new AsyncPagedListModel<T>(countPerPage, maxCachedPages, readAheadPages, 
+                fetchSortedPage, fetchTotalSize, sortModel, 
+                null != executor ? executor : PageLoaders.defaultExecutor(), 
+                placeholder);
+    }
+    
     public static <T> ListModel<T> buildListModel(
             final int countPerPage,
             final Func2<Integer, Integer, List<T>> fetchPage,
@@ -66,7 +195,7 @@ public class ZModels {
             final Action1<Comparator<T>> sortModel
             ) {
         class ListModelImpl extends AbstractListModel<T> implements Sortable<T> {
-            private final List<T> _cache = new ArrayList<>();
+            private List<T> _page = Collections.emptyList();
             private int _currentOffset = -countPerPage;
             private int _totalSize = -1;
             private static final long serialVersionUID = 1L;
@@ -79,10 +208,11 @@ public class ZModels {
                 if ((index < _currentOffset)
                   || (index >= _currentOffset + countPerPage)) {
                     _currentOffset = (index / countPerPage) * countPerPage;
-                    _cache.clear();
-                    _cache.addAll(fetchPage.call(_currentOffset, countPerPage));
+                    final List<T> page = fetchPage.call(_currentOffset, countPerPage);
+                    _page = null != page ? page : Collections.<T>emptyList();
                 }
-                return _cache.get(index % countPerPage);
+                final int pos = index - _currentOffset;
+                return pos < _page.size() ? _page.get(pos) : null;
             }
 
             @Override
@@ -101,7 +231,7 @@ public class ZModels {
                     _sortDir = ascending;
                     _currentOffset = -countPerPage;
                     _totalSize = -1;
-                    _cache.clear();
+                    _page = Collections.emptyList();
                     fireEvent(ListDataEvent.STRUCTURE_CHANGED, -1, -1);
                 }
             }
@@ -0,0 +1,223 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.DesktopUnavailableException;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.EventListener;
+import org.zkoss.zul.event.ListDataEvent;
+import org.zkoss.zul.event.ListDataListener;
+
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.functions.Func4;
+
+/**
+ * PagedListModel call fetchPage/fetchTotalSize on executor instead of servlet thread,
+ * return placeholder for elements not loaded yet, and when page(s) arrived, 
+ * cache them and fire CONTENTS_CHANGED via server push (Executions.schedule).
+ * 
+ * model used outside Execution (or desktop without server push) fallback to synchronous loading,
+ * server push enabled when model bound (addListDataListener).
+ * @author isdom
+ *
+ */
+public class AsyncPagedListModel<T> extends PagedListModel<T> {
+    private static final long serialVersionUID = 1L;
+    
+    private static final Logger LOG = 
+            LoggerFactory.getLogger(AsyncPagedListModel.class);
+    
+    private static final String ON_LOADED = "onPageLoaded";
+    
+    public AsyncPagedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func2<Integer, Integer, List<T>> fetchPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel,
+            final Executor executor,
+            final Func1<Integer, T> placeholder) {
+        super(countPerPage, maxCachedPages, readAheadPages, fetchPage, fetchTotalSize, sortModel);
+        this._executor = executor;
+        this._placeholder = placeholder;
+    }
+    
+    public AsyncPagedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func4<Integer, Integer, String, Boolean, List<T>> fetchSortedPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel,
+            final Executor executor,
+            final Func1<Integer, T> placeholder) {
+        super(countPerPage, maxCachedPages, readAheadPages, fetchSortedPage, fetchTotalSize, sortModel);
+        this._executor = executor;
+        this._placeholder = placeholder;
+    }
+    
+    @Override
+    protected List<T> loadPages(final int offset) {
+        final Desktop desktop = currentDesktop();
+        if (null == desktop) {
+            return super.loadPages(offset);
+        }
+        if (this._pendingPages.add(offset)) {
+            final int[] range = rangeToFetch(offset, knownSize());
+            final String sortKey = sortKey();
+            final boolean ascending = sortAscending();
+            final int generation = this._generation;
+            this._executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final List<T> fetched;
+                    try {
+                        fetched = fetch(range[0], range[1] - range[0], sortKey, ascending);
+                    } catch (Exception e) {
+                        LOG.warn("exception when fetchPage({}, {}), detail: {}", 
+                                range[0], range[1] - range[0], ExceptionUtils.exception2detail(e));
+                        schedule(desktop, generation, new Runnable() {
+                            @Override
+                            public void run() {
+                                _pendingPages.remove(offset);
+                                // placeholders re-rendered, so rows requested (and fetched) again
+                                fireEvent(ListDataEvent.CONTENTS_CHANGED, range[0], range[1] - 1);
+                            }});
+                        return;
+                    }
+                    schedule(desktop, generation, new Runnable() {
+                        @Override
+                        public void run() {
+                            _pendingPages.remove(offset);
+                            cachePages(offset, range[0], range[1], fetched);
+                            fireEvent(ListDataEvent.CONTENTS_CHANGED, range[0], range[1] - 1);
+                        }});
+                }});
+        }
+        return null;
+    }
+    
+    @Override
+    protected T elementNotLoaded(final int index) {
+        return null != this._placeholder ? this._placeholder.call(index) : null;
+    }
+    
+    @Override
+    public int getSize() {
+        final int size = knownSize();
+        if (size >= 0) {
+            return size;
+        }
+        final Desktop desktop = currentDesktop();
+        if (null == desktop) {
+            return super.getSize();
+        }
+        if (!this._sizePending) {
+            this._sizePending = true;
+            final int generation = this._generation;
+            this._executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Integer fetched = null;
+                    try {
+                        fetched = fetchTotalSize().call();
+                    } catch (Exception e) {
+                        LOG.warn("exception when fetchTotalSize, detail: {}", 
+                                ExceptionUtils.exception2detail(e));
+                    }
+                    final Integer total = fetched;
+                    schedule(desktop, generation, new Runnable() {
+                        @Override
+                        public void run() {
+                            _sizePending = false;
+                            if (null != total) {
+                                setKnownSize(total);
+                                fireEvent(ListDataEvent.STRUCTURE_CHANGED, -1, -1);
+                            }
+                        }});
+                }});
+        }
+        return 0;
+    }
+    
+    @Override
+    public void invalidate() {
+        // results of in-flight fetches belong to previous generation, drop them when arrived
+        this._generation++;
+        this._pendingPages.clear();
+        this._sizePending = false;
+        super.invalidate();
+    }
+    
+    public int getPendingPageCount() {
+        return this._pendingPages.size();
+    }
+    
+    /**
+     * enable server push of current desktop once, when model bound to component
+     */
+    @Override
+    public void addListDataListener(final ListDataListener l) {
+        super.addListDataListener(l);
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        if (null != desktop && !desktop.isServerPushEnabled()) {
+            desktop.enableServerPush(true);
+        }
+    }
+    
+    /**
+     * @return desktop of current execution with server push enabled, otherwise null (load synchronously)
+     */
+    private Desktop currentDesktop() {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        return null != desktop && desktop.isServerPushEnabled() ? desktop : null;
+    }
+    
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // executor not serializable, fetches in-flight when serialized never arrive
+        this._executor = PageLoaders.defaultExecutor();
+        this._pendingPages.clear();
+        this._sizePending = false;
+    }
+    
+    private void schedule(final Desktop desktop, final int generation, final Runnable onDesktop) {
+        try {
+            Executions.schedule(desktop, new EventListener<Event>() {
+                @Override
+                public void onEvent(final Event event) throws Exception {
+                    if (generation == _generation) {
+                        onDesktop.run();
+                    }
+                }}, new Event(ON_LOADED));
+        } catch (DesktopUnavailableException e) {
+            LOG.debug("desktop {} unavailable, drop loaded page.", desktop);
+        }
+    }
+    
+    // restored as PageLoaders.defaultExecutor() after deserialization
+    private transient Executor _executor;
+    private final Func1<Integer, T> _placeholder;
+    
+    private final Set<Integer> _pendingPages = new HashSet<>();
+    private boolean _sizePending = false;
+    private int _generation = 0;
+}
@@ -0,0 +1,234 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jocean.idiom.ReflectUtils;
+import org.jocean.zkoss.annotation.CellSource;
+import org.jocean.zkoss.annotation.CellStore;
+import org.jocean.zkoss.builder.CellBindings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Component;
+
+import rx.functions.Func1;
+
+/**
+ * immutable per-class layout of @CellSource/@CellStore bean: cell positions, getter/setter pairs,
+ * component classes, accessors and text converters, built once: generated CellBindings called directly if exist,
+ * otherwise MethodHandles of annotated methods.
+ * @author isdom
+ *
+ */
+final class BeanGridLayout {
+    private static final Logger LOG = 
+            LoggerFactory.getLogger(BeanGridLayout.class);
+    
+    private static final ClassValue<BeanGridLayout> _LAYOUTS = new ClassValue<BeanGridLayout>() {
+        @Override
+        protected BeanGridLayout computeValue(final Class<?> cls) {
+            return new BeanGridLayout(cls);
+        }};
+    
+    private static final MethodType _GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType _SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    
+    static BeanGridLayout of(final Class<?> cls) {
+        return _LAYOUTS.get(cls);
+    }
+    
+    /**
+     * one cell: values of @CellSource and access to its getter/setter
+     */
+    abstract static class CellSpec {
+        final String name;
+        final int row;
+        final int col;
+        final Class<? extends Component> component;
+        final boolean hasSetter;
+        final Class<?> setterType;
+        
+        CellSpec(final String name, final int row, final int col, 
+                final Class<? extends Component> component,
+                final boolean hasSetter, final Class<?> setterType) {
+            this.name = name;
+            this.row = row;
+            this.col = col;
+            this.component = component;
+            this.hasSetter = hasSetter;
+            this.setterType = setterType;
+            this._converter = null != setterType ? TextConverters.of(setterType) : null;
+            this._formatter = null != this._converter ? TextConverters.formatterOf(setterType) : null;
+        }
+        
+        boolean hasConverter() {
+            return null != this._converter;
+        }
+        
+        /**
+         * convert text to setter's parameter type
+         */
+        Object valueOfText(final String text) {
+            return this._converter.call(text);
+        }
+        
+        /**
+         * @return text of value accepted by valueOfText
+         */
+        String textOf(final Object value) {
+            if (null == value) {
+                return null;
+            }
+            return null != this._formatter && this.setterType.isInstance(value)
+                    ? this._formatter.call(value) : value.toString();
+        }
+        
+        abstract Object getValue(final Object bean) throws Throwable;
+        
+        abstract void setValue(final Object bean, final Object value) throws Throwable;
+        
+        private final Func1<String, Object> _converter;
+        private final Func1<Object, String> _formatter;
+    }
+    
+    private static final class ReflectedCell extends CellSpec {
+        ReflectedCell(final CellSource cellsource, final Method getter, final Method setter) {
+            super(cellsource.name(), cellsource.row(), cellsource.col(), cellsource.component(),
+                    null != setter, 
+                    (null != setter && setter.getParameterTypes().length > 0) 
+                        ? setter.getParameterTypes()[0] : null);
+            this._getter = getter;
+            this._setter = setter;
+            this._getterHandle = handleOf(getter, _GETTER_TYPE);
+            this._setterHandle = null != this.setterType ? handleOf(setter, _SETTER_TYPE) : null;
+        }
+        
+        private static MethodHandle handleOf(final Method method, final MethodType type) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(type);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("can't access " + method, e);
+            }
+        }
+        
+        @Override
+        Object getValue(final Object bean) throws Throwable {
+            return (Object)this._getterHandle.invokeExact(bean);
+        }
+        
+        @Override
+        void setValue(final Object bean, final Object value) throws Throwable {
+            this._setterHandle.invokeExact(bean, value);
+        }
+        
+        @Override
+        public String toString() {
+            return this._getter + "/" + this._setter;
+        }
+        
+        private final Method _getter;
+        private final Method _setter;
+        private final MethodHandle _getterHandle;
+        private final MethodHandle _setterHandle;
+    }
+    
+    /**
+     * call getter/setter directly through generated CellBindings, no reflection
+     */
+    private static final class GeneratedCell extends CellSpec {
+        GeneratedCell(final CellBindings bindings, final int idx) {
+            super(bindings.name(idx), bindings.row(idx), bindings.col(idx), bindings.component(idx),
+                    bindings.hasSetter(idx), bindings.setterType(idx));
+            this._bindings = bindings;
+            this._idx = idx;
+        }
+        
+        @Override
+        Object getValue(final Object bean) {
+            return this._bindings.getValue(this._idx, bean);
+        }
+        
+        @Override
+        void setValue(final Object bean, final Object value) {
+            this._bindings.setValue(this._idx, bean, value);
+        }
+        
+        @Override
+        public String toString() {
+            return this._bindings.getClass().getName() + "#" + this.name;
+        }
+        
+        private final CellBindings _bindings;
+        private final int _idx;
+    }
+    
+    private BeanGridLayout(final Class<?> cls) {
+        final CellBindings bindings = Generateds.newInstanceOf(cls, CellBindings.GENERATED_SUFFIX, CellBindings.class);
+        final CellSpec[] cells = null != bindings ? buildCells(bindings) : buildCells(cls);
+        this._cells = cells;
+        int rows = -1;
+        int cols = -1;
+        for (CellSpec cell : cells) {
+            rows = Math.max(rows, cell.row);
+            cols = Math.max(cols, cell.col);
+        }
+        this._rows = rows + 1;
+        this._cols = cols + 1;
+    }
+    
+    private static CellSpec[] buildCells(final Class<?> cls) {
+        final Method[] getters = ReflectUtils.getAnnotationMethodsOf(cls, CellSource.class);
+        final Method[] setters = ReflectUtils.getAnnotationMethodsOf(cls, CellStore.class);
+        final Map<String, Method> name2setter = new HashMap<>();
+        for (Method setter : setters) {
+            if (setter.getParameterTypes().length > 1) {
+                LOG.warn("@CellStore method {} has more than one parameter, ignored.", setter);
+                continue;
+            }
+            final String name = setter.getAnnotation(CellStore.class).name();
+            // first one wins, same as linear search
+            if (!name2setter.containsKey(name)) {
+                name2setter.put(name, setter);
+            }
+        }
+        final CellSpec[] cells = new CellSpec[getters.length];
+        for (int idx = 0; idx < getters.length; idx++) {
+            final CellSource cellsource = getters[idx].getAnnotation(CellSource.class);
+            cells[idx] = new ReflectedCell(cellsource, getters[idx], name2setter.get(cellsource.name()));
+        }
+        return cells;
+    }
+    
+    private static CellSpec[] buildCells(final CellBindings bindings) {
+        final CellSpec[] cells = new CellSpec[bindings.size()];
+        for (int idx = 0; idx < cells.length; idx++) {
+            cells[idx] = new GeneratedCell(bindings, idx);
+        }
+        return cells;
+    }
+    
+    int rows() {
+        return this._rows;
+    }
+    
+    int cols() {
+        return this._cols;
+    }
+    
+    int size() {
+        return this._cells.length;
+    }
+    
+    CellSpec cellAt(final int idx) {
+        return this._cells[idx];
+    }
+    
+    private final CellSpec[] _cells;
+    private final int _rows;
+    private final int _cols;
+}
@@ -1,69 +1,79 @@
 package org.jocean.zkoss.builder.impl;
 
-import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.jocean.idiom.Pair;
-import org.jocean.idiom.ReflectUtils;
-import org.jocean.zkoss.annotation.CellStore;
-import org.jocean.zkoss.annotation.CellSource;
 import org.jocean.zkoss.builder.BeanGridRenderer;
+import org.jocean.zkoss.builder.GridLayout;
+import org.jocean.zkoss.util.Desktops;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.zk.ui.Component;
+import org.zkoss.zk.ui.Executions;
 import org.zkoss.zul.AbstractListModel;
 import org.zkoss.zul.Label;
 import org.zkoss.zul.ListModel;
 import org.zkoss.zul.Row;
 
+import rx.functions.Action0;
+
 public class BeanGridRendererImpl<T> implements BeanGridRenderer<T> {
     @SuppressWarnings("unused")
     private static final Logger LOG = 
             LoggerFactory.getLogger(BeanGridRendererImpl.class);
     
-    public BeanGridRendererImpl(final T bean, final String defaultStyle) {
+    /**
+     * @param lazy true: cell's component built and bound when its row first rendered
+     *          or got by getComponent(name)
+     */
+    public BeanGridRendererImpl(final T bean, final String defaultStyle, final boolean lazy) {
         this._bean = bean;
+        this._lazy = lazy;
         this._defaultComponentStyle = defaultStyle;
-        final Class<?> cls = bean.getClass();
-        final Method[] getters = ReflectUtils.getAnnotationMethodsOf(cls, CellSource.class);
-        final Method[] setters = ReflectUtils.getAnnotationMethodsOf(cls, CellStore.class);
-        this._cols = calcColCount(getters);
-        this._rows = calcRowCount(getters);
-        for (Method getter : getters) {
-            final CellSource cellsource = getter.getAnnotation(CellSource.class);
-            this._xy2cell.put(Pair.of(cellsource.row(), cellsource.col()), 
-                buildCell(cellsource, getter, findSetter(setters, cellsource.name())));
+        final BeanGridLayout layout = BeanGridLayout.of(bean.getClass());
+        this._rows = layout.rows();
+        this._cols = layout.cols();
+        for (int idx = 0; idx < layout.size(); idx++) {
+            final BeanGridLayout.CellSpec spec = layout.cellAt(idx);
+            putCell(spec.row, spec.col, buildCell(spec));
+        }
+        if (null != Executions.getCurrent()) {
+            this._unregisterDispose = Desktops.registerForCurrentDesktop(new Action0() {
+                @Override
+                public void call() {
+                    dispose();
+                }});
         }
     }
+    public BeanGridRendererImpl(final T bean, final String defaultStyle) {
+        this(bean, defaultStyle, false);
+    }
+    
     public BeanGridRendererImpl(final T bean) {
         this(bean, null);
     }
     
-    private Method findSetter(final Method[] setters, final String name) {
-        for ( Method m : setters) {
-            if ( name.equals(m.getAnnotation(CellStore.class).name())) {
-                return m;
-            }
-        }
-        return null;
-    }
-
-    private CellImpl buildCell(final CellSource cellsource, 
-            final Method getter, 
-            final Method setter) {
-        final CellImpl cell = new CellImpl(cellsource, this._bean, getter, setter, this._defaultComponentStyle);
-        this._name2cell.put(cellsource.name(), cell);
+    private CellImpl buildCell(final BeanGridLayout.CellSpec spec) {
+        final CellImpl cell = new CellImpl(spec, this._bean, this._defaultComponentStyle, this._lazy);
+        this._name2cell.put(spec.name, cell);
         return cell;
     }
 
     @Override
     public <C extends Component> C attachComponentToCell(final int row, final int col, final C comp) {
-        this._xy2cell.put(Pair.of(row, col),new CellImpl((Component)comp));
-        enlargeRowCol(row, col);
+        putCell(row, col, new CellImpl((Component)comp));
         return comp;
     }
     
+    private void putCell(final int row, final int col, final CellImpl cell) {
+        enlargeRowCol(row, col);
+        if (null == this._grid[row][col]) {
+            this._occupied++;
+        }
+        this._grid[row][col] = cell;
+    }
+    
     private void enlargeRowCol(final int row, final int col) {
         if (this._rows <= row) {
             this._rows = row+1;
@@ -71,13 +81,23 @@ public class BeanGridRendererImpl<T> implements BeanGridRenderer<T> {
         if (this._cols <= col) {
             this._cols = col+1;
         }
+        if (this._grid.length < this._rows || this._gridCols < this._cols) {
+            this._grid = Arrays.copyOf(this._grid, this._rows);
+            for (int idx = 0; idx < this._rows; idx++) {
+                this._grid[idx] = null == this._grid[idx] 
+                        ? new CellImpl[this._cols]
+                        : Arrays.copyOf(this._grid[idx], this._cols);
+            }
+            this._gridCols = this._cols;
+        }
     }
 
     @Override
     public void render(final Row row, final T bean, int rowidx)
             throws Exception {
+        final CellImpl[] cells = rowidx < this._grid.length ? this._grid[rowidx] : null;
         for (int col = 0; col < this._cols; col++) {
-            row.appendChild(renderCell(this._xy2cell.get(Pair.of(rowidx, col))));
+            row.appendChild(renderCell(null != cells ? cells[col] : null));
         }
     }
 
@@ -112,6 +132,22 @@ public class BeanGridRendererImpl<T> implements BeanGridRenderer<T> {
             }};
     }
     
+    @Override
+    public GridLayout getLayout() {
+        return this._layout;
+    }
+    
+    @Override
+    public void dispose() {
+        for (CellImpl cell : this._name2cell.values()) {
+            cell.dispose();
+        }
+        if (null != this._unregisterDispose) {
+            this._unregisterDispose.call();
+            this._unregisterDispose = null;
+        }
+    }
+    
     @Override
     public boolean isDisabled() {
         return this._isDisabled;
@@ -127,37 +163,47 @@ public class BeanGridRendererImpl<T> implements BeanGridRenderer<T> {
         }
     }
 
-    private static int calcRowCount(final Method[] methods) {
-        int rows = -1;
-        for (Method method : methods) {
-            final CellSource cell = method.getAnnotation(CellSource.class);
-            if (null!=cell) {
-                if (cell.row() > rows) {
-                    rows = cell.row();
-                }
-            }
-        }
-        return rows + 1;
-    }
-    
-    private static int calcColCount(final Method[] methods) {
-        int cols = -1;
-        for (Method method : methods) {
-            final CellSource cell = method.getAnnotation(CellSource.class);
-            if (null!=cell) {
-                if (cell.col() > cols) {
-                    cols = cell.col();
-                }
-            }
-        }
-        return cols + 1;
-    }
-    
     private int _rows;
     private int _cols;
     private boolean _isDisabled = false;
     private final T _bean;
     private final String _defaultComponentStyle;
+    private final boolean _lazy;
     private final Map<String, CellImpl> _name2cell = new HashMap<>();
-    private final Map<Pair<Integer,Integer>, CellImpl> _xy2cell = new HashMap<>();
+    private CellImpl[][] _grid = new CellImpl[0][];
+    private int _gridCols = 0;
+    private int _occupied = 0;
+    private Action0 _unregisterDispose = null;
+    
+    private final GridLayout _layout = new GridLayout() {
+        @Override
+        public int getRows() {
+            return _rows;
+        }
+
+        @Override
+        public int getCols() {
+            return _cols;
+        }
+
+        @Override
+        public boolean isOccupied(final int row, final int col) {
+            return null != cellAt(row, col);
+        }
+
+        @Override
+        public int getOccupiedCount() {
+            return _occupied;
+        }
+
+        @Override
+        public String getCellName(final int row, final int col) {
+            final CellImpl cell = cellAt(row, col);
+            return null != cell ? cell.getName() : null;
+        }
+        
+        private CellImpl cellAt(final int row, final int col) {
+            return (row >= 0 && row < _grid.length && col >= 0 && col < _grid[row].length)
+                    ? _grid[row][col] : null;
+        }};
 }
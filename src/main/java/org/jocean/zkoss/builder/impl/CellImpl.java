@@ -1,18 +1,16 @@
 package org.jocean.zkoss.builder.impl;
 
-import java.beans.PropertyEditor;
-import java.beans.PropertyEditorManager;
 import java.lang.reflect.Method;
 import java.util.Set;
 
 import org.jocean.idiom.ExceptionUtils;
 import org.jocean.idiom.ReflectUtils;
 import org.jocean.idiom.Triple;
-import org.jocean.zkoss.annotation.CellSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.zk.ui.Component;
 import org.zkoss.zk.ui.HtmlBasedComponent;
+import org.zkoss.zk.ui.WrongValueException;
 import org.zkoss.zk.ui.event.EventListener;
 import org.zkoss.zk.ui.event.Events;
 import org.zkoss.zk.ui.event.InputEvent;
@@ -43,10 +41,12 @@ class CellImpl {
     };
 
     private final Object _bean;
-    private final CellSource _cellsource;
-    private final Component _component;
-    private final Method _getter;
-    private final Method _setter;
+    private final BeanGridLayout.CellSpec _spec;
+    private final String _componentStyle;
+    private Component _component;
+    private Boolean _pendingDisabled = null;
+    private ListModel<?> _boundModel = null;
+    private boolean _disposed = false;
     
     private final ListDataListener _listDataListener = new ListDataListener() {
         @Override
@@ -68,37 +68,51 @@ class CellImpl {
         
     CellImpl(final Component component) {
         this._component = component;
-        this._cellsource = null;
+        this._spec = null;
+        this._componentStyle = null;
         this._bean = null;
-        this._getter = null;
-        this._setter = null;
     }
     
-    CellImpl(final CellSource cellsource, 
+    /**
+     * @param lazy true: build and bind component when first rendered or got
+     */
+    CellImpl(final BeanGridLayout.CellSpec spec, 
         final Object bean,
-        final Method getter, 
-        final Method setter, 
-        final String componentStyle) {
-        this._cellsource = cellsource;
-        this._component = buildFieldComponent(cellsource, componentStyle);
+        final String componentStyle,
+        final boolean lazy) {
+        this._spec = spec;
+        this._componentStyle = componentStyle;
         this._bean = bean;
-        this._getter = getter;
-        this._setter = setter;
+        if (!lazy) {
+            materialize();
+        }
+    }
+    
+    private void materialize() {
+        this._component = buildFieldComponent(this._spec, this._componentStyle);
         disableCellBySetter();
         bindCellByGetterAndSetter();
+        if (null != this._pendingDisabled) {
+            setDisableStatus(this._pendingDisabled);
+            this._pendingDisabled = null;
+        }
+    }
+    
+    boolean isMaterialized() {
+        return null != this._component;
     }
     
     private void disableCellBySetter() {
-        if (null==_setter && getComponent() instanceof Disable) {
+        if (!this._spec.hasSetter && getComponent() instanceof Disable) {
             ((Disable)getComponent()).setDisabled(true);
         }
     }
 
-    private Component buildFieldComponent(final CellSource cellsource, final String componentStyle) {
+    private Component buildFieldComponent(final BeanGridLayout.CellSpec spec, final String componentStyle) {
         try {
-            final Component cellcomp = cellsource.component().newInstance();
+            final Component cellcomp = spec.component.newInstance();
             if (cellcomp instanceof LabelElement) {
-                ((LabelElement)cellcomp).setLabel(cellsource.name());
+                ((LabelElement)cellcomp).setLabel(spec.name);
                 return cellcomp;
             }
             if (cellcomp instanceof HtmlBasedComponent) {
@@ -107,7 +121,7 @@ class CellImpl {
             return cellcomp;
         } catch (Exception e) {
             LOG.warn("exception when newInstance for {}, detail:{}",
-                    cellsource.component(), ExceptionUtils.exception2detail(e));
+                    spec.component, ExceptionUtils.exception2detail(e));
             return new Label(e.toString());
         }
     }
@@ -156,86 +170,111 @@ class CellImpl {
                 return null;
             }
         } else {
-            return null!=value ? value.toString() : null;
+            // same format as parsed back by bindCellForInput
+            return null!=value ? this._spec.textOf(value) : null;
         }
     }
     
     private void bindCellAsListModel(final Object value) {
-        if (null!=value && value instanceof ListModel ) {
-            ((ListModel<?>)value).addListDataListener(this._listDataListener);
+        // lazy cell materialized after dispose() must not re-bind listener
+        if (!this._disposed && null!=value && value instanceof ListModel ) {
+            this._boundModel = (ListModel<?>)value;
+            this._boundModel.addListDataListener(this._listDataListener);
+        }
+    }
+    
+    /**
+     * remove listener added to ListModel got from bean, so long-lived model not hold this cell
+     */
+    void dispose() {
+        this._disposed = true;
+        if (null != this._boundModel) {
+            this._boundModel.removeListDataListener(this._listDataListener);
+            this._boundModel = null;
         }
     }
 
     private void bindCellForInput() {
-        final PropertyEditor editor = PropertyEditorManager.findEditor(setterParameterType());
-        if ( this.getComponent() instanceof InputElement) {
+        if ( this._spec.hasConverter() && this.getComponent() instanceof InputElement) {
             final InputElement input = (InputElement)this.getComponent();
             input.addEventListener(Events.ON_CHANGE, new EventListener<InputEvent>() {
                 @Override
                 public void onEvent(final InputEvent event) throws Exception {
-                    if (null!=editor) {
-                        editor.setAsText(event.getValue());
-                        setValueToCell(editor.getValue());
+                    final Object value;
+                    try {
+                        value = _spec.valueOfText(event.getValue());
+                    } catch (RuntimeException e) {
+                        throw new WrongValueException(input, e.getMessage());
                     }
+                    setValueToCell(value);
                 }});
         }
     }
 
     private boolean isSetterValid() {
-        return null!= this._setter && this._setter.getParameterTypes().length>0;
+        return null != this._spec && null != this._spec.setterType;
     }
 
     private Class<?> setterParameterType() {
-        return (null!=this._setter && _setter.getParameterTypes().length>0) 
-                ? this._setter.getParameterTypes()[0]
-                : null;
+        return null != this._spec ? this._spec.setterType : null;
     }
 
     private Object getValueFromCell() {
         Object value = null;
         try {
-            if (null!=this._getter) {
-                value = _getter.invoke(_bean);
+            if (null!=this._spec) {
+                value = this._spec.getValue(_bean);
             }
-        } catch (Exception e) {
-            LOG.warn("exception when invoke {}.{}, detail: {}", 
-                    _bean, _getter, ExceptionUtils.exception2detail(e));
+        } catch (Throwable e) {
+            LOG.warn("exception when get {} from {}, detail: {}", 
+                    _spec, _bean, ExceptionUtils.exception2detail(e));
         }
         return value;
     }
 
     private void setValueToCell(final Object v) {
         try {
-            if (null!=this._setter) {
-                this._setter.invoke(_bean, v);
+            if (isSetterValid()) {
+                this._spec.setValue(_bean, v);
             }
-        } catch (Exception e) {
-            LOG.warn("exception when invoke {}.{}, detail:{}",
-                    _bean, _setter, ExceptionUtils.exception2detail(e));
+        } catch (Throwable e) {
+            LOG.warn("exception when set {} to {}, detail:{}",
+                    _spec, _bean, ExceptionUtils.exception2detail(e));
         }
     }
     
     Component render() {
-        if ( null==this._cellsource 
+        if ( null==this._spec 
           || this.getComponent() instanceof LabelElement) {
             return this.getComponent();
         } else {
             return new Hlayout() {
                 private static final long serialVersionUID = 1L;
             {
-                this.appendChild(new Label(_cellsource.name()));
+                this.appendChild(new Label(_spec.name));
                 this.appendChild(getComponent());
             }};
         }
     }
     
     void setDisableStatus(final boolean disabled) {
-        if (null!= this._setter && this.getComponent() instanceof Disable) {
+        if (!isMaterialized()) {
+            this._pendingDisabled = disabled;
+            return;
+        }
+        if (null!= this._spec && this._spec.hasSetter && this.getComponent() instanceof Disable) {
             ((Disable)this.getComponent()).setDisabled(disabled);
         }
     }
 
+    String getName() {
+        return null != this._spec ? this._spec.name : null;
+    }
+    
     Component getComponent() {
+        if (!isMaterialized()) {
+            materialize();
+        }
         return this._component;
     }
 }
@@ -0,0 +1,35 @@
+package org.jocean.zkoss.builder.impl;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * locate classes generated by jocean-zkoss-apt for bean class
+ * @author isdom
+ *
+ */
+final class Generateds {
+    private static final Logger LOG = 
+            LoggerFactory.getLogger(Generateds.class);
+    
+    private Generateds() {
+        throw new IllegalStateException("No instances!");
+    }
+    
+    static <T> T newInstanceOf(final Class<?> beanCls, final String suffix, final Class<T> type) {
+        final Class<?> generated;
+        try {
+            generated = Class.forName(beanCls.getName() + suffix, true, beanCls.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        try {
+            return type.cast(generated.newInstance());
+        } catch (Exception e) {
+            LOG.warn("exception when newInstance for generated {}, fallback to reflection, detail: {}",
+                    generated, ExceptionUtils.exception2detail(e));
+            return null;
+        }
+    }
+}
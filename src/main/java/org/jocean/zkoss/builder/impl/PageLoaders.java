@@ -0,0 +1,56 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * default executor for async page loading: 
+ * virtual thread per task when running on JDK 21+, otherwise cached daemon threads.
+ * @author isdom
+ *
+ */
+public class PageLoaders {
+    private static final Logger LOG = 
+            LoggerFactory.getLogger(PageLoaders.class);
+    
+    private PageLoaders() {
+        throw new IllegalStateException("No instances!");
+    }
+    
+    public static Executor defaultExecutor() {
+        return Holder._EXECUTOR;
+    }
+    
+    private static class Holder {
+        private static final Executor _EXECUTOR = buildExecutor();
+    }
+    
+    private static Executor buildExecutor() {
+        try {
+            final ExecutorService executor = (ExecutorService)Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            LOG.info("page loader using virtual threads.");
+            return executor;
+        } catch (NoSuchMethodException e) {
+            // pre JDK 21
+        } catch (Exception e) {
+            LOG.warn("exception when create virtual thread executor, detail: {}", 
+                    ExceptionUtils.exception2detail(e));
+        }
+        final AtomicInteger idx = new AtomicInteger(0);
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "zmodels-pageloader-" + idx.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }});
+    }
+}
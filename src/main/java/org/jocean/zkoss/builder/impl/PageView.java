@@ -0,0 +1,73 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * read-only, bounds-clamped page view over backing array or list, no copying.
+ * @author isdom
+ *
+ */
+public final class PageView<T> extends AbstractList<T> implements RandomAccess {
+    
+    public static <T> List<T> ofArray(final T[] array, final int offset, final int count) {
+        return ofPermuted(array, null, offset, count);
+    }
+    
+    /**
+     * @param permutation element at i of view is array[permutation[offset+i]], null means natural order
+     */
+    public static <T> List<T> ofPermuted(final T[] array, final int[] permutation, 
+            final int offset, final int count) {
+        final int from = clamp(offset, array.length);
+        final int to = endOf(from, count, array.length);
+        return new PageView<T>(array, permutation, from, to - from);
+    }
+    
+    public static <T> List<T> ofList(final List<T> list, final int offset, final int count) {
+        final int size = list.size();
+        final int from = clamp(offset, size);
+        final int to = endOf(from, count, size);
+        return Collections.unmodifiableList(list.subList(from, to));
+    }
+    
+    private static int clamp(final int value, final int size) {
+        return Math.max(0, Math.min(value, size));
+    }
+    
+    /**
+     * from + count without int overflow, eg: count is Integer.MAX_VALUE for all remaining
+     */
+    private static int endOf(final int from, final int count, final int size) {
+        return count > size - from ? size : from + Math.max(0, count);
+    }
+    
+    private PageView(final T[] array, final int[] permutation, final int offset, final int size) {
+        this._array = array;
+        this._permutation = permutation;
+        this._offset = offset;
+        this._size = size;
+    }
+    
+    @Override
+    public T get(final int index) {
+        if (index < 0 || index >= this._size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this._size);
+        }
+        return null != this._permutation 
+                ? this._array[this._permutation[this._offset + index]]
+                : this._array[this._offset + index];
+    }
+
+    @Override
+    public int size() {
+        return this._size;
+    }
+    
+    private final T[] _array;
+    private final int[] _permutation;
+    private final int _offset;
+    private final int _size;
+}
@@ -0,0 +1,273 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jocean.zkoss.builder.PagingListModel;
+import org.jocean.zkoss.builder.SortKeyComparator;
+import org.zkoss.lang.Objects;
+import org.zkoss.zul.AbstractListModel;
+import org.zkoss.zul.event.ListDataEvent;
+
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func2;
+import rx.functions.Func4;
+
+/**
+ * keep at most maxCachedPages pages (LRU, keyed by page offset),
+ * when missed, fetch the page together with readAheadPages pages 
+ * before and after it in ONE fetchPage call.
+ * sort by SortKeyComparator can be pushed down to sort-aware page fetcher.
+ * @author isdom
+ *
+ */
+public class PagedListModel<T> extends AbstractListModel<T> implements PagingListModel<T> {
+    private static final long serialVersionUID = 1L;
+
+    public PagedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func2<Integer, Integer, List<T>> fetchPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel) {
+        this(countPerPage, maxCachedPages, readAheadPages, unsorted(fetchPage), false, fetchTotalSize, sortModel);
+    }
+    
+    /**
+     * @param fetchSortedPage called as (offset, count, sortKey, ascending), sortKey is null before
+     *          any SortKeyComparator sort, sort with other Comparator fallback to sortModel (in memory)
+     */
+    public PagedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func4<Integer, Integer, String, Boolean, List<T>> fetchSortedPage,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel) {
+        this(countPerPage, maxCachedPages, readAheadPages, fetchSortedPage, true, fetchTotalSize, sortModel);
+    }
+    
+    private PagedListModel(
+            final int countPerPage,
+            final int maxCachedPages,
+            final int readAheadPages,
+            final Func4<Integer, Integer, String, Boolean, List<T>> fetchSortedPage,
+            final boolean sortPushdown,
+            final Func0<Integer> fetchTotalSize,
+            final Action1<Comparator<T>> sortModel) {
+        if (countPerPage <= 0) {
+            throw new IllegalArgumentException("countPerPage must be positive");
+        }
+        this._countPerPage = countPerPage;
+        this._maxCachedPages = Math.max(1, maxCachedPages);
+        // requested page and its read-ahead neighbours must fit in cache together
+        this._readAheadPages = Math.max(0, Math.min(readAheadPages, (this._maxCachedPages - 1) / 2));
+        this._fetchPage = fetchSortedPage;
+        this._sortPushdown = sortPushdown;
+        this._fetchTotalSize = fetchTotalSize;
+        this._sortModel = sortModel;
+    }
+    
+    private static <T> Func4<Integer, Integer, String, Boolean, List<T>> unsorted(
+            final Func2<Integer, Integer, List<T>> fetchPage) {
+        return new Func4<Integer, Integer, String, Boolean, List<T>>() {
+            @Override
+            public List<T> call(final Integer offset, final Integer count, 
+                    final String sortKey, final Boolean ascending) {
+                return fetchPage.call(offset, count);
+            }};
+    }
+    
+    @Override
+    public T getElementAt(final int index) {
+        final int offset = (index / this._countPerPage) * this._countPerPage;
+        List<T> page = this._pages.get(offset);
+        if (null != page) {
+            this._hitCount++;
+        } else {
+            this._missCount++;
+            page = loadPages(offset);
+            if (null == page) {
+                return elementNotLoaded(index);
+            }
+        }
+        final int pos = index - offset;
+        return pos < page.size() ? page.get(pos) : null;
+    }
+
+    /**
+     * @return the page start at offset, or null if it will be loaded later
+     */
+    protected List<T> loadPages(final int offset) {
+        final int[] range = rangeToFetch(offset, getSize());
+        return cachePages(offset, range[0], range[1], 
+                fetch(range[0], range[1] - range[0], this._sortKey, this._sortAscending));
+    }
+    
+    protected T elementNotLoaded(final int index) {
+        return null;
+    }
+    
+    /**
+     * @return [from, to) contains page at offset and read-ahead pages not cached yet
+     */
+    protected int[] rangeToFetch(final int offset, final int totalSize) {
+        final int span = this._readAheadPages * this._countPerPage;
+        int from = Math.max(0, offset - span);
+        int to = offset + this._countPerPage + span;
+        if (this._readAheadPages > 0 && totalSize >= 0) {
+            to = Math.max(offset + this._countPerPage, Math.min(to, totalSize));
+        }
+        // don't fetch again neighbours already cached
+        while (from < offset && this._pages.containsKey(from)) {
+            from += this._countPerPage;
+        }
+        while (to - this._countPerPage > offset && this._pages.containsKey(to - this._countPerPage)) {
+            to -= this._countPerPage;
+        }
+        return new int[]{from, to};
+    }
+    
+    protected List<T> cachePages(final int offset, final int from, final int to, final List<T> result) {
+        final List<T> fetched = null != result ? result : Collections.<T>emptyList();
+        final int fetchedSize = fetched.size();
+        
+        List<T> requested = null;
+        for (int pageOffset = from; pageOffset < to; pageOffset += this._countPerPage) {
+            final int begin = Math.min(pageOffset - from, fetchedSize);
+            final int end = Math.min(begin + this._countPerPage, fetchedSize);
+            final List<T> page = fetched.subList(begin, end);
+            if (pageOffset == offset) {
+                requested = page;
+            } else if (begin < end) {
+                this._pages.put(pageOffset, page);
+            }
+        }
+        // put requested page last, make it most recently used
+        this._pages.put(offset, requested);
+        return requested;
+    }
+
+    @Override
+    public int getSize() {
+        if (this._totalSize < 0) {
+            this._totalSize = this._fetchTotalSize.call();
+        }
+        return this._totalSize;
+    }
+    
+    protected int knownSize() {
+        return this._totalSize;
+    }
+    
+    protected void setKnownSize(final int totalSize) {
+        this._totalSize = totalSize;
+    }
+    
+    protected int countPerPage() {
+        return this._countPerPage;
+    }
+    
+    protected List<T> fetch(final int offset, final int count, final String sortKey, final boolean ascending) {
+        return this._fetchPage.call(offset, count, sortKey, ascending);
+    }
+    
+    /**
+     * @return sort key pushed down to fetchSortedPage, null means natural order
+     */
+    protected String sortKey() {
+        return this._sortKey;
+    }
+    
+    protected boolean sortAscending() {
+        return this._sortAscending;
+    }
+    
+    protected Func0<Integer> fetchTotalSize() {
+        return this._fetchTotalSize;
+    }
+    
+    @Override
+    public void sort(final Comparator<T> cmpr, final boolean ascending) {
+        if (this._sortPushdown && cmpr instanceof SortKeyComparator) {
+            this._sortKey = ((SortKeyComparator<T>)cmpr).getSortKey();
+            this._sortAscending = ascending;
+        } else if (null != this._sortModel) {
+            this._sortModel.call(cmpr);
+        } else {
+            return;
+        }
+        this._sorting = cmpr;
+        this._sortDir = ascending;
+        invalidate();
+    }
+
+    @Override
+    public String getSortDirection(final Comparator<T> cmpr) {
+        if (Objects.equals(this._sorting, cmpr))
+            return this._sortDir ?
+                    "ascending" : "descending";
+        return "natural";
+    }
+    
+    @Override
+    public void invalidate() {
+        this._pages.clear();
+        this._totalSize = -1;
+        fireEvent(ListDataEvent.STRUCTURE_CHANGED, -1, -1);
+    }
+    
+    @Override
+    public long getHitCount() {
+        return this._hitCount;
+    }
+
+    @Override
+    public long getMissCount() {
+        return this._missCount;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return this._evictionCount;
+    }
+
+    @Override
+    public int getCachedPageCount() {
+        return this._pages.size();
+    }
+
+    private final int _countPerPage;
+    private final int _maxCachedPages;
+    private final int _readAheadPages;
+    private final Func4<Integer, Integer, String, Boolean, List<T>> _fetchPage;
+    private final boolean _sortPushdown;
+    private final Func0<Integer> _fetchTotalSize;
+    private final Action1<Comparator<T>> _sortModel;
+    
+    private final Map<Integer, List<T>> _pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Integer, List<T>> eldest) {
+            if (size() > _maxCachedPages) {
+                _evictionCount++;
+                return true;
+            }
+            return false;
+        }};
+    
+    private int _totalSize = -1;
+    private String _sortKey = null;
+    private boolean _sortAscending = true;
+    private Comparator<T> _sorting;
+    private boolean _sortDir;
+    
+    private long _hitCount = 0;
+    private long _missCount = 0;
+    private long _evictionCount = 0;
+}
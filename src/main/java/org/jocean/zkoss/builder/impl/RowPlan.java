@@ -0,0 +1,297 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.jocean.idiom.ReflectUtils;
+import org.jocean.zkoss.annotation.RowSource;
+import org.jocean.zkoss.annotation.RowSource.DUMMY;
+import org.jocean.zkoss.builder.RowLayout;
+import org.jocean.zkoss.builder.SortKeyComparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Component;
+import org.zkoss.zul.Column;
+import org.zkoss.zul.Columns;
+import org.zkoss.zul.Label;
+import org.zkoss.zul.Listcell;
+import org.zkoss.zul.Listhead;
+import org.zkoss.zul.Listheader;
+import org.zkoss.zul.Listitem;
+import org.zkoss.zul.ListitemRenderer;
+import org.zkoss.zul.Row;
+import org.zkoss.zul.RowRenderer;
+
+/**
+ * per-class, immutable description of @RowSource fields: discovered once,
+ * ordered by RowSource.index() and read through precompiled MethodHandles.
+ * used as RowLayout when no jocean-zkoss-apt generated [bean class]_ZRows found.
+ * @author isdom
+ *
+ */
+public final class RowPlan implements RowLayout<Object> {
+    private static final Logger LOG = 
+            LoggerFactory.getLogger(RowPlan.class);
+
+    private static final MethodType _GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<RowPlan> _PLANS = new ClassValue<RowPlan>() {
+        @Override
+        protected RowPlan computeValue(final Class<?> cls) {
+            return new RowPlan(cls);
+        }};
+
+    private static final ClassValue<RowLayout<?>> _LAYOUTS = new ClassValue<RowLayout<?>>() {
+        @Override
+        protected RowLayout<?> computeValue(final Class<?> cls) {
+            @SuppressWarnings("rawtypes")
+            final RowLayout generated = Generateds.newInstanceOf(cls, RowLayout.GENERATED_SUFFIX, RowLayout.class);
+            return null != generated ? generated : _PLANS.get(cls);
+        }};
+
+    public static RowPlan of(final Class<?> cls) {
+        return _PLANS.get(cls);
+    }
+
+    /**
+     * @return generated RowLayout for cls if exist, otherwise reflection based RowPlan
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowLayout<T> layoutOf(final Class<T> cls) {
+        return (RowLayout<T>)_LAYOUTS.get(cls);
+    }
+
+    private RowPlan(final Class<?> cls) {
+        final Field[] fields = ReflectUtils.getAnnotationFieldsOf(cls, RowSource.class);
+        final Field[] sorted = null != fields ? fields.clone() : new Field[0];
+        // stable sort, fields with same index keep declared order
+        Arrays.sort(sorted, new Comparator<Field>() {
+            @Override
+            public int compare(final Field f1, final Field f2) {
+                return Integer.compare(f1.getAnnotation(RowSource.class).index(),
+                        f2.getAnnotation(RowSource.class).index());
+            }});
+        this._sources = new RowSource[sorted.length];
+        this._getters = new MethodHandle[sorted.length];
+        this._ascendings = new SortKeyComparator<?>[sorted.length];
+        this._descendings = new SortKeyComparator<?>[sorted.length];
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int idx = 0; idx < sorted.length; idx++) {
+            final Field field = sorted[idx];
+            this._sources[idx] = field.getAnnotation(RowSource.class);
+            try {
+                field.setAccessible(true);
+                this._getters[idx] = lookup.unreflectGetter(field).asType(_GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("can't access @RowSource field " + field, e);
+            }
+            if (!this._sources[idx].sortKey().isEmpty()) {
+                final Comparator<Object> inMemory = inMemoryComparator(idx);
+                this._ascendings[idx] = new SortKeyComparator<Object>(this._sources[idx].sortKey(), true, inMemory);
+                this._descendings[idx] = new SortKeyComparator<Object>(this._sources[idx].sortKey(), false, inMemory);
+            }
+        }
+        // created once per class, same instance shared by headers of all desktops,
+        // so caches keyed by Comparator (eg: SharedDataset's permutations) hit across desktops
+        this._ascComparators = new Comparator<?>[sorted.length];
+        this._dscComparators = new Comparator<?>[sorted.length];
+        for (int idx = 0; idx < sorted.length; idx++) {
+            this._ascComparators[idx] = DUMMY.class == this._sources[idx].asc() 
+                    ? this._ascendings[idx] : newComparator(this._sources[idx].asc());
+            this._dscComparators[idx] = DUMMY.class == this._sources[idx].dsc() 
+                    ? this._descendings[idx] : newComparator(this._sources[idx].dsc());
+        }
+    }
+
+    private Comparator<Object> inMemoryComparator(final int idx) {
+        return new Comparator<Object>() {
+            @Override
+            public int compare(final Object o1, final Object o2) {
+                try {
+                    return compareValues(valueAt(idx, o1), valueAt(idx, o2));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }};
+    }
+
+    /**
+     * null first, Comparable by compareTo, others by toString()
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static int compareValues(final Object v1, final Object v2) {
+        if (v1 == v2) {
+            return 0;
+        } else if (null == v1) {
+            return -1;
+        } else if (null == v2) {
+            return 1;
+        } else if (v1 instanceof Comparable) {
+            return ((Comparable)v1).compareTo(v2);
+        } else {
+            return v1.toString().compareTo(v2.toString());
+        }
+    }
+
+    public int size() {
+        return this._sources.length;
+    }
+
+    public RowSource sourceAt(final int idx) {
+        return this._sources[idx];
+    }
+
+    /**
+     * @return SortKeyComparator of the field with @RowSource(sortKey=...), null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SortKeyComparator<T> sortComparator(final String sortKey, final boolean ascending) {
+        for (int idx = 0; idx < this._sources.length; idx++) {
+            if (this._sources[idx].sortKey().equals(sortKey)) {
+                return (SortKeyComparator<T>)(ascending ? this._ascendings[idx] : this._descendings[idx]);
+            }
+        }
+        return null;
+    }
+
+    public Object valueAt(final int idx, final Object bean) throws Exception {
+        try {
+            return (Object)this._getters[idx].invokeExact(bean);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void renderRow(final Row row, final Object bean) throws Exception {
+        for (int idx = 0; idx < this._getters.length; idx++) {
+            appendCell(row, valueAt(idx, bean));
+        }
+    }
+
+    public void renderItem(final Listitem item, final Object bean) throws Exception {
+        for (int idx = 0; idx < this._getters.length; idx++) {
+            appendCell(item, valueAt(idx, bean));
+        }
+    }
+
+    @Override
+    public void buildColumns(final Columns columns) {
+        for (int idx = 0; idx < this._sources.length; idx++) {
+            columns.appendChild(newColumn(this._sources[idx].name(), ascendingAt(idx), descendingAt(idx)));
+        }
+    }
+
+    @Override
+    public void buildHead(final Listhead head) {
+        for (int idx = 0; idx < this._sources.length; idx++) {
+            head.appendChild(newHeader(this._sources[idx].name(), ascendingAt(idx), descendingAt(idx)));
+        }
+    }
+
+    private Comparator<?> ascendingAt(final int idx) {
+        return this._ascComparators[idx];
+    }
+
+    private Comparator<?> descendingAt(final int idx) {
+        return this._dscComparators[idx];
+    }
+
+    @Override
+    public RowRenderer<Object> rowRenderer() {
+        return new RowRenderer<Object>() {
+            @Override
+            public void render(final Row row, final Object data, final int index)
+                    throws Exception {
+                renderRow(row, data);
+            }};
+    }
+
+    @Override
+    public ListitemRenderer<Object> itemRenderer() {
+        return new ListitemRenderer<Object>() {
+            @Override
+            public void render(final Listitem item, final Object data, final int index)
+                    throws Exception {
+                renderItem(item, data);
+            }};
+    }
+
+    private static Comparator<?> newComparator(final Class<? extends Comparator<?>> cls) {
+        if (DUMMY.class != cls) {
+            try {
+                return cls.newInstance();
+            } catch (Exception e) {
+                LOG.warn("exception when newInstance for comparator {}, detail: {}",
+                        cls, ExceptionUtils.exception2detail(e));
+            }
+        }
+        return null;
+    }
+
+    public static Column newColumn(final String label, final Comparator<?> asc, final Comparator<?> dsc) {
+        final Column col = new Column(label);
+        if (null != asc) {
+            col.setSortAscending(asc);
+        }
+        if (null != dsc) {
+            col.setSortDescending(dsc);
+        }
+        return col;
+    }
+
+    public static Listheader newHeader(final String label, final Comparator<?> asc, final Comparator<?> dsc) {
+        final Listheader header = new Listheader(label);
+        if (null != asc) {
+            header.setSortAscending(asc);
+        }
+        if (null != dsc) {
+            header.setSortDescending(dsc);
+        }
+        return header;
+    }
+
+    public static void appendCell(final Row row, final Object value) {
+        if (null!=value) {
+            if (value instanceof Component) {
+                row.appendChild((Component)value);
+            } else {
+                row.appendChild(new Label(value.toString()));
+            }
+        } else {
+            row.appendChild(new Label("<null>"));
+        }
+    }
+
+    public static void appendCell(final Listitem item, final Object value) {
+        if (null!=value) {
+            if (value instanceof Component) {
+                if (value instanceof Listcell) {
+                    item.appendChild((Component)value);
+                } else {
+                    final Listcell cell = new Listcell();
+                    cell.appendChild((Component)value);
+                    item.appendChild(cell);
+                }
+            } else {
+                item.appendChild(new Listcell(value.toString()));
+            }
+        } else {
+            item.appendChild(new Listcell("<null>"));
+        }
+    }
+
+    private final RowSource[] _sources;
+    private final MethodHandle[] _getters;
+    private final SortKeyComparator<?>[] _ascendings;
+    private final SortKeyComparator<?>[] _descendings;
+    private final Comparator<?>[] _ascComparators;
+    private final Comparator<?>[] _dscComparators;
+}
@@ -0,0 +1,54 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.util.Comparator;
+
+import org.jocean.zkoss.builder.SharedDataset;
+import org.zkoss.lang.Objects;
+import org.zkoss.zul.AbstractListModel;
+import org.zkoss.zul.event.ListDataEvent;
+import org.zkoss.zul.ext.Sortable;
+
+/**
+ * ListModel view of SharedDataset, sort only switch this model's permutation,
+ * dataset and other models viewing it are untouched.
+ * @author isdom
+ *
+ */
+public class SharedDatasetListModel<T> extends AbstractListModel<T> implements Sortable<T> {
+    private static final long serialVersionUID = 1L;
+
+    public SharedDatasetListModel(final SharedDataset<T> dataset) {
+        this._dataset = dataset;
+    }
+    
+    @Override
+    public T getElementAt(final int index) {
+        return this._dataset.get(this._permutation, index);
+    }
+
+    @Override
+    public int getSize() {
+        return this._dataset.size();
+    }
+
+    @Override
+    public void sort(final Comparator<T> cmpr, final boolean ascending) {
+        this._permutation = this._dataset.permutationOf(cmpr);
+        this._sorting = cmpr;
+        this._sortDir = ascending;
+        fireEvent(ListDataEvent.STRUCTURE_CHANGED, -1, -1);
+    }
+
+    @Override
+    public String getSortDirection(final Comparator<T> cmpr) {
+        if (Objects.equals(this._sorting, cmpr))
+            return this._sortDir ?
+                    "ascending" : "descending";
+        return "natural";
+    }
+    
+    private final transient SharedDataset<T> _dataset;
+    private int[] _permutation = null;
+    private Comparator<T> _sorting;
+    private boolean _sortDir;
+}
@@ -0,0 +1,285 @@
+package org.jocean.zkoss.builder.impl;
+
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import rx.functions.Func1;
+
+/**
+ * thread-safe registry of stateless text -> value converters and their value -> text formatters,
+ * resolved once per type (primitives and wrappers, String, enums, BigDecimal/BigInteger, java.util.Date, java.time),
+ * other types fallback to a fresh PropertyEditor per conversion.
+ * text produced by formatter always accepted by converter of the same type.
+ * @author isdom
+ *
+ */
+public class TextConverters {
+    
+    private TextConverters() {
+        throw new IllegalStateException("No instances!");
+    }
+    
+    /**
+     * @return converter for type, null if type not supported
+     */
+    public static Func1<String, Object> of(final Class<?> type) {
+        final Func1<String, Object> converter = _CONVERTERS.get(type);
+        if (null != converter) {
+            return converter;
+        }
+        final Func1<String, Object> built = build(type);
+        if (null == built) {
+            return null;
+        }
+        final Func1<String, Object> prev = _CONVERTERS.putIfAbsent(type, built);
+        return null != prev ? prev : built;
+    }
+    
+    /**
+     * @return formatter for type, produce text accepted by of(type), never null
+     */
+    public static Func1<Object, String> formatterOf(final Class<?> type) {
+        final Func1<Object, String> formatter = _FORMATTERS.get(type);
+        if (null != formatter) {
+            return formatter;
+        }
+        final Func1<Object, String> built = buildFormatter(type);
+        final Func1<Object, String> prev = _FORMATTERS.putIfAbsent(type, built);
+        return null != prev ? prev : built;
+    }
+    
+    /**
+     * register or replace converter for type, formatted by toString()
+     */
+    public static <T> void register(final Class<T> type, final Func1<String, ? extends T> converter) {
+        register(type, converter, null);
+    }
+    
+    /**
+     * register or replace converter and its formatter for type
+     * @param formatter null means toString()
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void register(final Class<T> type, final Func1<String, ? extends T> converter,
+            final Func1<? super T, String> formatter) {
+        _CONVERTERS.put(type, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return converter.call(text);
+            }});
+        _FORMATTERS.put(type, null != formatter ? (Func1<Object, String>)formatter : _TO_STRING);
+    }
+    
+    private static Func1<String, Object> build(final Class<?> type) {
+        if (type.isEnum()) {
+            return enumConverter(type);
+        }
+        if (null == PropertyEditorManager.findEditor(type)) {
+            return null;
+        }
+        return new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                // PropertyEditor is stateful, use new one each time
+                final PropertyEditor editor = PropertyEditorManager.findEditor(type);
+                editor.setAsText(text);
+                return editor.getValue();
+            }};
+    }
+    
+    private static Func1<Object, String> buildFormatter(final Class<?> type) {
+        if (type.isEnum()) {
+            return new Func1<Object, String>() {
+                @Override
+                public String call(final Object value) {
+                    return null != value ? ((Enum<?>)value).name() : null;
+                }};
+        }
+        if (null == PropertyEditorManager.findEditor(type)) {
+            return _TO_STRING;
+        }
+        return new Func1<Object, String>() {
+            @Override
+            public String call(final Object value) {
+                if (null == value) {
+                    return null;
+                }
+                final PropertyEditor editor = PropertyEditorManager.findEditor(type);
+                editor.setValue(value);
+                return editor.getAsText();
+            }};
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Func1<String, Object> enumConverter(final Class<?> type) {
+        return new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return isEmpty(text) ? null : Enum.valueOf((Class<Enum>)type, text.trim());
+            }};
+    }
+    
+    private static boolean isEmpty(final String text) {
+        return null == text || text.trim().isEmpty();
+    }
+    
+    /**
+     * @param format null means toString()
+     */
+    private static void add(final Class<?> wrapper, final Class<?> primitive, 
+            final Func1<String, Object> parse, final Func1<Object, String> format) {
+        _FORMATTERS.put(wrapper, null != format ? format : _TO_STRING);
+        if (null != primitive) {
+            _FORMATTERS.put(primitive, null != format ? format : _TO_STRING);
+        }
+        // empty text: null for wrapper, parse error for primitive
+        _CONVERTERS.put(wrapper, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return isEmpty(text) ? null : parse.call(text.trim());
+            }});
+        if (null != primitive) {
+            _CONVERTERS.put(primitive, new Func1<String, Object>() {
+                @Override
+                public Object call(final String text) {
+                    return parse.call(null != text ? text.trim() : null);
+                }});
+        }
+    }
+    
+    private static final DateTimeFormatter _DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    private static final ConcurrentMap<Class<?>, Func1<String, Object>> _CONVERTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, Func1<Object, String>> _FORMATTERS = new ConcurrentHashMap<>();
+    
+    private static final Func1<Object, String> _TO_STRING = new Func1<Object, String>() {
+        @Override
+        public String call(final Object value) {
+            return null != value ? value.toString() : null;
+        }};
+    
+    static {
+        _CONVERTERS.put(String.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return text;
+            }});
+        _FORMATTERS.put(String.class, _TO_STRING);
+        add(Boolean.class, boolean.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                if ("true".equalsIgnoreCase(text)) {
+                    return Boolean.TRUE;
+                } else if ("false".equalsIgnoreCase(text)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException("not boolean: " + text);
+            }}, null);
+        add(Byte.class, byte.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Byte.decode(text);
+            }}, null);
+        add(Short.class, short.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Short.decode(text);
+            }}, null);
+        add(Integer.class, int.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Integer.decode(text);
+            }}, null);
+        add(Long.class, long.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Long.decode(text);
+            }}, null);
+        add(Float.class, float.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Float.valueOf(text);
+            }}, null);
+        add(Double.class, double.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Double.valueOf(text);
+            }}, null);
+        add(Character.class, char.class, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                if (null == text || text.length() != 1) {
+                    throw new IllegalArgumentException("not char: " + text);
+                }
+                return text.charAt(0);
+            }}, null);
+        add(BigDecimal.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return new BigDecimal(text);
+            }}, null);
+        add(BigInteger.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return new BigInteger(text);
+            }}, null);
+        add(LocalDate.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return LocalDate.parse(text);
+            }}, null);
+        add(LocalTime.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return LocalTime.parse(text);
+            }}, null);
+        add(LocalDateTime.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return parseDateTime(text);
+            }}, new Func1<Object, String>() {
+            @Override
+            public String call(final Object value) {
+                return null != value ? _DATETIME.format((LocalDateTime)value) : null;
+            }});
+        add(Date.class, null, new Func1<String, Object>() {
+            @Override
+            public Object call(final String text) {
+                return Date.from(parseDateTime(text).atZone(ZoneId.systemDefault()).toInstant());
+            }}, new Func1<Object, String>() {
+            @Override
+            public String call(final Object value) {
+                return null != value 
+                        ? _DATETIME.format(LocalDateTime.ofInstant(((Date)value).toInstant(), ZoneId.systemDefault())) 
+                        : null;
+            }});
+    }
+    
+    /**
+     * accept yyyy-MM-dd HH:mm:ss, ISO date time or yyyy-MM-dd (start of day)
+     */
+    private static LocalDateTime parseDateTime(final String text) {
+        try {
+            return LocalDateTime.parse(text, _DATETIME);
+        } catch (DateTimeParseException e) {
+            // try next format
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            // try next format
+        }
+        return LocalDate.parse(text).atStartOfDay();
+    }
+}
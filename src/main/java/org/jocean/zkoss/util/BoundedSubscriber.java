@@ -0,0 +1,298 @@
+package org.jocean.zkoss.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.DesktopUnavailableException;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.EventListener;
+
+import rx.functions.Action1;
+
+/**
+ * subscriber of EventQueueForwarder with bounded buffer:
+ * calls queued here and drained on subscriber's desktop by at most ONE pending Executions.schedule,
+ * so slow desktop never build unbounded backlog, overflow handled by OverflowPolicy.
+ * @author isdom
+ *
+ */
+public class BoundedSubscriber<T> {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(BoundedSubscriber.class);
+
+    private static final String ON_DRAIN = "onDrain";
+
+    public enum OverflowPolicy {
+        /** drop the oldest buffered call */
+        DROP_OLDEST,
+        /** drop the incoming call */
+        DROP_NEWEST,
+        /** replace buffered call with same conflation key (latest value wins), otherwise drop oldest */
+        CONFLATE,
+        /** block publisher until space available or timeout, then drop the incoming call,
+         *  publisher running in subscriber's own desktop never blocked, drop the incoming call at once */
+        BLOCK
+    }
+
+    BoundedSubscriber(final Desktop desktop,
+            final T observer,
+            final int capacity,
+            final OverflowPolicy policy,
+            final long blockTimeoutMillis,
+            final Action1<BoundedSubscriber<T>> onUnsubscribe) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this._desktop = desktop;
+        this._pushBacklog = ZkMetricsMonitor.pushBacklogOf(desktop.getWebApp());
+        this._observer = observer;
+        this._capacity = capacity;
+        this._policy = policy;
+        this._blockTimeoutMillis = blockTimeoutMillis;
+        this._onUnsubscribe = onUnsubscribe;
+    }
+
+    /**
+     * @param deadlineNanos System.nanoTime() based deadline shared by all subscribers of one publish,
+     *          BLOCK never wait beyond it
+     */
+    void offer(final Object key, final Action1<T> action, final long deadlineNanos) {
+        boolean scheduleDrain = false;
+        this._lock.lock();
+        try {
+            if (this._unsubscribed) {
+                return;
+            }
+            if (this._buffer.size() >= this._capacity && !makeRoom(key, deadlineNanos)) {
+                return;
+            }
+            this._buffer.addLast(new Entry<T>(key, action));
+            this._pushBacklog.addAndGet(1);
+            this._queuedCount++;
+            if (!this._drainScheduled) {
+                this._drainScheduled = true;
+                scheduleDrain = true;
+            }
+        } finally {
+            this._lock.unlock();
+        }
+        if (scheduleDrain) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * @return true if incoming action should be appended
+     */
+    private boolean makeRoom(final Object key, final long deadlineNanos) {
+        switch (this._policy) {
+        case DROP_NEWEST:
+            this._droppedCount++;
+            return false;
+        case CONFLATE:
+            if (null != key) {
+                final Iterator<Entry<T>> iter = this._buffer.iterator();
+                while (iter.hasNext()) {
+                    final Entry<T> entry = iter.next();
+                    if (key.equals(entry._key)) {
+                        iter.remove();
+                        this._pushBacklog.addAndGet(-1);
+                        this._conflatedCount++;
+                        return true;
+                    }
+                }
+            }
+            this._buffer.pollFirst();
+            this._pushBacklog.addAndGet(-1);
+            this._droppedCount++;
+            return true;
+        case BLOCK:
+            if (inOwnDesktop()) {
+                // drain need this desktop's execution, which is the one we'd block: never wait
+                this._droppedCount++;
+                return false;
+            }
+            long nanos = Math.min(TimeUnit.MILLISECONDS.toNanos(this._blockTimeoutMillis),
+                    deadlineNanos - System.nanoTime());
+            try {
+                while (this._buffer.size() >= this._capacity && !this._unsubscribed) {
+                    if (nanos <= 0) {
+                        this._droppedCount++;
+                        return false;
+                    }
+                    nanos = this._notFull.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this._droppedCount++;
+                return false;
+            }
+            return !this._unsubscribed;
+        case DROP_OLDEST:
+        default:
+            this._buffer.pollFirst();
+            this._pushBacklog.addAndGet(-1);
+            this._droppedCount++;
+            return true;
+        }
+    }
+
+    private boolean inOwnDesktop() {
+        final Execution exec = Executions.getCurrent();
+        return null != exec && exec.getDesktop() == this._desktop;
+    }
+
+    long getBlockTimeoutMillis() {
+        return this._blockTimeoutMillis;
+    }
+
+    private void scheduleDrain() {
+        try {
+            Executions.schedule(this._desktop, this._drainer, new Event(ON_DRAIN));
+        } catch (DesktopUnavailableException e) {
+            LOG.debug("desktop {} unavailable, unsubscribe {}.", this._desktop, this);
+            unsubscribe();
+        }
+    }
+
+    private final EventListener<Event> _drainer = new EventListener<Event>() {
+        @Override
+        public void onEvent(final Event event) throws Exception {
+            drain();
+        }};
+
+    void drain() {
+        final List<Action1<T>> actions;
+        this._lock.lock();
+        try {
+            actions = new ArrayList<>(this._buffer.size());
+            for (Entry<T> entry : this._buffer) {
+                actions.add(entry._action);
+            }
+            this._pushBacklog.addAndGet(-this._buffer.size());
+            this._buffer.clear();
+            this._drainScheduled = false;
+            this._notFull.signalAll();
+        } finally {
+            this._lock.unlock();
+        }
+        for (Action1<T> action : actions) {
+            try {
+                action.call(this._observer);
+            } catch (Exception e) {
+                LOG.warn("exception when deliver to {}, detail: {}",
+                        this._observer, ExceptionUtils.exception2detail(e));
+            }
+        }
+    }
+
+    public void unsubscribe() {
+        this._lock.lock();
+        try {
+            if (this._unsubscribed) {
+                return;
+            }
+            this._unsubscribed = true;
+            this._pushBacklog.addAndGet(-this._buffer.size());
+            this._buffer.clear();
+            this._notFull.signalAll();
+        } finally {
+            this._lock.unlock();
+        }
+        this._onUnsubscribe.call(this);
+    }
+
+    public boolean isUnsubscribed() {
+        this._lock.lock();
+        try {
+            return this._unsubscribed;
+        } finally {
+            this._lock.unlock();
+        }
+    }
+
+    public OverflowPolicy getPolicy() {
+        return this._policy;
+    }
+
+    public int getCapacity() {
+        return this._capacity;
+    }
+
+    public int getBacklog() {
+        this._lock.lock();
+        try {
+            return this._buffer.size();
+        } finally {
+            this._lock.unlock();
+        }
+    }
+
+    public long getQueuedCount() {
+        this._lock.lock();
+        try {
+            return this._queuedCount;
+        } finally {
+            this._lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        this._lock.lock();
+        try {
+            return this._droppedCount;
+        } finally {
+            this._lock.unlock();
+        }
+    }
+
+    public long getConflatedCount() {
+        this._lock.lock();
+        try {
+            return this._conflatedCount;
+        } finally {
+            this._lock.unlock();
+        }
+    }
+
+    private static final class Entry<T> {
+        Entry(final Object key, final Action1<T> action) {
+            this._key = key;
+            this._action = action;
+        }
+
+        final Object _key;
+        final Action1<T> _action;
+    }
+
+    private final Desktop _desktop;
+    private final AtomicLong _pushBacklog;
+    private final T _observer;
+    private final int _capacity;
+    private final OverflowPolicy _policy;
+    private final long _blockTimeoutMillis;
+    private final Action1<BoundedSubscriber<T>> _onUnsubscribe;
+
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _notFull = this._lock.newCondition();
+    private final Deque<Entry<T>> _buffer = new ArrayDeque<>();
+    private boolean _drainScheduled = false;
+    private boolean _unsubscribed = false;
+
+    private long _queuedCount = 0;
+    private long _droppedCount = 0;
+    private long _conflatedCount = 0;
+}
@@ -0,0 +1,273 @@
+package org.jocean.zkoss.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.DesktopUnavailableException;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.EventListener;
+
+import rx.functions.Action0;
+import rx.functions.Action1;
+
+/**
+ * application wide fan-out of EventQueueForwarder's calls to many desktops:
+ * each call stored ONCE in a ring log, every desktop keep its own cursor,
+ * a ticker push calls after cursor to desktop in ONE Executions.schedule,
+ * at most maxPushesPerSecond per desktop and at most one push in flight.
+ * desktop fell behind more than ring capacity skip oldest calls (counted as dropped).
+ * @author isdom
+ *
+ */
+public class BroadcastHub<T> {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(BroadcastHub.class);
+
+    private static final String ON_BROADCAST = "onBroadcast";
+
+    public BroadcastHub(final EventQueueForwarder<T> forwarder,
+            final int ringCapacity,
+            final int maxPushesPerSecond) {
+        if (ringCapacity <= 0) {
+            throw new IllegalArgumentException("ringCapacity must be positive");
+        }
+        if (maxPushesPerSecond <= 0) {
+            throw new IllegalArgumentException("maxPushesPerSecond must be positive");
+        }
+        this._forwarder = forwarder;
+        this._ring = new Object[ringCapacity];
+        this._pushIntervalMillis = Math.max(1, 1000 / maxPushesPerSecond);
+        this._forwarder.addTap(this._appender);
+    }
+
+    /**
+     * subscribe observer for current desktop, unsubscribed automatically when desktop cleanup
+     */
+    public void subscribe(final T observer) {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        if (null == desktop) {
+            throw new IllegalStateException("must call from valid Execution");
+        }
+        if (!desktop.isServerPushEnabled()) {
+            desktop.enableServerPush(true);
+        }
+        Channel channel = this._channels.get(desktop);
+        if (null == channel) {
+            channel = new Channel(desktop, head());
+            this._channels.put(desktop, channel);
+            final Channel added = channel;
+            channel._unregister = Desktops.registerForCurrentDesktop(new Action0() {
+                @Override
+                public void call() {
+                    removeChannel(added);
+                }});
+        }
+        channel._observers.add(observer);
+        startTicker();
+    }
+
+    public void unsubscribe(final T observer) {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        final Channel channel = null != desktop ? this._channels.get(desktop) : null;
+        if (null != channel) {
+            channel._observers.remove(observer);
+            if (channel._observers.isEmpty()) {
+                removeChannel(channel);
+                // desktop cleanup action of this channel no longer needed
+                if (null != channel._unregister) {
+                    channel._unregister.call();
+                }
+            }
+        }
+    }
+
+    private void removeChannel(final Channel channel) {
+        if (this._channels.remove(channel._desktop, channel)) {
+            stopTickerIfIdle();
+        }
+    }
+
+    public void close() {
+        this._forwarder.removeTap(this._appender);
+        synchronized (this) {
+            if (null != this._ticker) {
+                this._ticker.cancel(false);
+                this._ticker = null;
+            }
+        }
+        this._channels.clear();
+    }
+
+    public int getDesktopCount() {
+        return this._channels.size();
+    }
+
+    public long getPublishedCount() {
+        return head();
+    }
+
+    public long getPushCount() {
+        return this._pushCount.get();
+    }
+
+    public long getDroppedCount() {
+        return this._droppedCount.get();
+    }
+
+    private synchronized void startTicker() {
+        if (null == this._ticker) {
+            this._ticker = Ticker._SCHEDULER.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        tick();
+                    } catch (Exception e) {
+                        LOG.warn("exception when tick for {}, detail: {}",
+                                BroadcastHub.this, ExceptionUtils.exception2detail(e));
+                    }
+                }}, this._pushIntervalMillis, this._pushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * ticker stopped when no desktop subscribed, restarted by next subscribe
+     */
+    private synchronized void stopTickerIfIdle() {
+        if (null != this._ticker && this._channels.isEmpty()) {
+            this._ticker.cancel(false);
+            this._ticker = null;
+        }
+    }
+
+    private void tick() {
+        final long head = head();
+        final long now = System.currentTimeMillis();
+        for (Channel channel : this._channels.values()) {
+            if (channel._cursor < head
+                && !channel._inFlight
+                && now - channel._lastPushAt >= this._pushIntervalMillis) {
+                channel._inFlight = true;
+                channel._lastPushAt = now;
+                try {
+                    Executions.schedule(channel._desktop, channel, new Event(ON_BROADCAST));
+                } catch (DesktopUnavailableException e) {
+                    LOG.debug("desktop {} unavailable, remove from {}.", channel._desktop, this);
+                    removeChannel(channel);
+                }
+            }
+        }
+    }
+
+    private final Action1<List<Action1<T>>> _appender = new Action1<List<Action1<T>>>() {
+        @Override
+        public void call(final List<Action1<T>> actions) {
+            synchronized (_ring) {
+                for (Action1<T> action : actions) {
+                    _ring[(int)(_head % _ring.length)] = action;
+                    _head++;
+                }
+            }
+        }};
+
+    private long head() {
+        synchronized (this._ring) {
+            return this._head;
+        }
+    }
+
+    /**
+     * @return calls in [from, head), from adjusted to oldest call still in ring
+     */
+    private Object[] readFrom(final Channel channel) {
+        synchronized (this._ring) {
+            long from = channel._cursor;
+            final long oldest = Math.max(0, this._head - this._ring.length);
+            if (from < oldest) {
+                this._droppedCount.addAndGet(oldest - from);
+                from = oldest;
+            }
+            final Object[] actions = new Object[(int)(this._head - from)];
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = this._ring[(int)((from + i) % this._ring.length)];
+            }
+            channel._cursor = this._head;
+            return actions;
+        }
+    }
+
+    private class Channel implements EventListener<Event> {
+        Channel(final Desktop desktop, final long cursor) {
+            this._desktop = desktop;
+            this._cursor = cursor;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void onEvent(final Event event) throws Exception {
+            try {
+                final Object[] actions = readFrom(this);
+                for (T observer : this._observers) {
+                    for (Object action : actions) {
+                        try {
+                            ((Action1<T>)action).call(observer);
+                        } catch (Exception e) {
+                            LOG.warn("exception when broadcast to {}, detail: {}",
+                                    observer, ExceptionUtils.exception2detail(e));
+                        }
+                    }
+                }
+                _pushCount.incrementAndGet();
+            } finally {
+                this._inFlight = false;
+            }
+        }
+
+        private final Desktop _desktop;
+        private final List<T> _observers = new CopyOnWriteArrayList<>();
+        // written under _ring
+        private volatile long _cursor;
+        private volatile boolean _inFlight = false;
+        private volatile long _lastPushAt = 0;
+        // unregister desktop cleanup action, null if not registered
+        private Action0 _unregister;
+    }
+
+    private static class Ticker {
+        private static final ScheduledExecutorService _SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "broadcasthub-ticker");
+                    t.setDaemon(true);
+                    return t;
+                }});
+    }
+
+    private final EventQueueForwarder<T> _forwarder;
+    private final Object[] _ring;
+    private final long _pushIntervalMillis;
+    private final Map<Desktop, Channel> _channels = new ConcurrentHashMap<>();
+
+    // guarded by _ring
+    private long _head = 0;
+
+    private ScheduledFuture<?> _ticker = null;
+    private final AtomicLong _pushCount = new AtomicLong(0);
+    private final AtomicLong _droppedCount = new AtomicLong(0);
+}
@@ -1,5 +1,11 @@
 package org.jocean.zkoss.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jocean.idiom.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zkoss.zk.ui.Desktop;
@@ -10,29 +16,154 @@ import org.zkoss.zk.ui.util.DesktopCleanup;
 import rx.functions.Action0;
 
 public class Desktops {
-    
+
     private static final Logger LOG =
             LoggerFactory.getLogger(Desktops.class);
-    
+
+    private static final String REGISTRY_ATTR = Desktops.class.getName() + ".registry";
+
+    private static final AtomicInteger _LIVE_DESKTOPS = new AtomicInteger(0);
+    private static final AtomicInteger _REGISTERED_ACTIONS = new AtomicInteger(0);
+    private static volatile Executor _CLEANUP_EXECUTOR = null;
+
     private Desktops() {
         throw new IllegalStateException("No instances!");
     }
 
     public static void addActionForCurrentDesktopCleanup(final Action0 action) {
+        registerForCurrentDesktop(action);
+    }
+
+    /**
+     * register action to current desktop's registry, all actions of one desktop
+     * called in one pass by ONE DesktopCleanup listener.
+     * @return action to unregister it before desktop cleanup, null if not call from valid Execution
+     */
+    public static Action0 registerForCurrentDesktop(final Action0 action) {
         final Execution exec = Executions.getCurrent();
         if (null != exec) {
             final Desktop desktop = exec.getDesktop();
             if (null != desktop) {
-                desktop.addListener(new DesktopCleanup() {
-                    @Override
-                    public void cleanup(final Desktop desktop) throws Exception {
-                        LOG.info("desktop ({}) cleanup, call action({})", desktop, action);
-                        action.call();
-                    }});
-                return;
+                return registryOf(desktop).register(action);
             }
         }
         LOG.warn("must call from valid Execution, Action({}) NOT added for desktop cleanup.",
                 action);
+        return null;
+    }
+
+    /**
+     * @param executor run cleanup actions off the servlet thread, null means run in cleanup thread
+     */
+    public static void setCleanupExecutor(final Executor executor) {
+        _CLEANUP_EXECUTOR = executor;
+    }
+
+    /**
+     * @return count of desktops with registered actions and not cleanup yet
+     */
+    public static int getLiveDesktopCount() {
+        return _LIVE_DESKTOPS.get();
+    }
+
+    public static int getRegisteredActionCount() {
+        return _REGISTERED_ACTIONS.get();
+    }
+
+    /**
+     * @return count of actions registered for current desktop, 0 if not call from valid Execution
+     */
+    public static int getCurrentDesktopActionCount() {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        if (null != desktop) {
+            final Registry registry = (Registry)desktop.getAttribute(REGISTRY_ATTR);
+            return null != registry ? registry.size() : 0;
+        }
+        return 0;
+    }
+
+    private static Registry registryOf(final Desktop desktop) {
+        synchronized (desktop) {
+            Registry registry = (Registry)desktop.getAttribute(REGISTRY_ATTR);
+            if (null == registry) {
+                registry = new Registry();
+                desktop.setAttribute(REGISTRY_ATTR, registry);
+                desktop.addListener(registry);
+                _LIVE_DESKTOPS.incrementAndGet();
+            }
+            return registry;
+        }
+    }
+
+    private static class Registry implements DesktopCleanup {
+
+        Action0 register(final Action0 action) {
+            synchronized (this) {
+                if (this._cleanup) {
+                    LOG.warn("desktop already cleanup, Action({}) NOT added.", action);
+                    return null;
+                }
+                this._actions.add(action);
+            }
+            _REGISTERED_ACTIONS.incrementAndGet();
+            return new Action0() {
+                @Override
+                public void call() {
+                    unregister(action);
+                }};
+        }
+
+        void unregister(final Action0 action) {
+            final boolean removed;
+            synchronized (this) {
+                removed = this._actions.remove(action);
+            }
+            if (removed) {
+                _REGISTERED_ACTIONS.decrementAndGet();
+            }
+        }
+
+        synchronized int size() {
+            return this._actions.size();
+        }
+
+        @Override
+        public void cleanup(final Desktop desktop) throws Exception {
+            final List<Action0> actions;
+            synchronized (this) {
+                this._cleanup = true;
+                actions = new ArrayList<>(this._actions);
+                this._actions.clear();
+            }
+            _REGISTERED_ACTIONS.addAndGet(-actions.size());
+            _LIVE_DESKTOPS.decrementAndGet();
+            LOG.debug("desktop ({}) cleanup, call {} actions", desktop, actions.size());
+
+            final Executor executor = _CLEANUP_EXECUTOR;
+            if (null != executor) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callAll(desktop, actions);
+                    }});
+            } else {
+                callAll(desktop, actions);
+            }
+        }
+
+        private static void callAll(final Desktop desktop, final List<Action0> actions) {
+            for (Action0 action : actions) {
+                try {
+                    action.call();
+                } catch (Exception e) {
+                    LOG.warn("exception when call action({}) for desktop ({}) cleanup, detail: {}",
+                            action, desktop, ExceptionUtils.exception2detail(e));
+                }
+            }
+        }
+
+        private final List<Action0> _actions = new ArrayList<>();
+        private boolean _cleanup = false;
     }
 }
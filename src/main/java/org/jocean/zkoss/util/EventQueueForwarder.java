@@ -5,17 +5,36 @@ package org.jocean.zkoss.util;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.jocean.idiom.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
 import org.zkoss.zk.ui.event.Event;
 import org.zkoss.zk.ui.event.EventListener;
 import org.zkoss.zk.ui.event.EventQueue;
 
+import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Func2;
 
 /**
  * @author isdom
@@ -37,33 +56,284 @@ public class EventQueueForwarder<T> implements InvocationHandler {
         // inherited from java.lang.Object are not overridden by a proxy
         // class, so invocations of those methods behave like they do
         // for instances of java.lang.Object.
-        if (method.getName().equals("hashCode")) {
-            return this.hashCode();
-        } else if (method.getName().equals("equals")) {
-            return (this == args[0]);
-        } else if (method.getName().equals("toString")) {
-            return this.toString();
-        }
-        final Action1<T> action = new Action1<T>() {
-            @Override
-            public void call(final T t) {
-                try {
-                    method.invoke(t, args);
-                } catch (Exception e) {
-                    LOG.warn("exception when invoke {}/{} for args {}, detail: {}",
-                            t, method, args, ExceptionUtils.exception2detail(e));
-                }
-            }};
-        this._eventqueue.publish(new Event(this._eventid, null, action));
+        if (Object.class == method.getDeclaringClass()) {
+            return invokeObjectMethod(obj, method, args);
+        }
+        // every method of intf in table, checked when built (see checkForwardable)
+        final int idx = this._methods.indexOf(method);
+        final Action1<T> action = new Invocation<T>(this._methods, idx, args);
+        if (isBatching()) {
+            addToBatch(method, args, action);
+        } else {
+            publish(Collections.singletonList(action), true);
+        }
         return null;
     }
 
+    private Object invokeObjectMethod(final Object proxy, final Method method, final Object[] args) {
+        switch (method.getName()) {
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        default:
+            return "EventQueueForwarder proxy of " + this._intfs[0].getName() + "(" + this._eventid + ")";
+        }
+    }
+    
+    /**
+     * reject interface can't be forwarded when built, instead of failing each call
+     */
+    private static void checkForwardable(final Class<?> intf) {
+        for (Method method : intf.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())
+                && !isObjectMethod(method)
+                && method.getReturnType().isPrimitive() 
+                && void.class != method.getReturnType()) {
+                throw new IllegalArgumentException("can't forward " + method 
+                        + ": result of forwarded call always null, can't be primitive");
+            }
+        }
+    }
+    
+    private static boolean isObjectMethod(final Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    private boolean isBatching() {
+        return this._batchWindowMillis > 0 || this._maxBatchSize > 1;
+    }
+    
+    private void addToBatch(final Method method, final Object[] args, final Action1<T> action) {
+        boolean flushNow = false;
+        synchronized (this._pending) {
+            final Object key = null != this._conflationKey ? this._conflationKey.call(method, args) : null;
+            if (null != key) {
+                // latest value wins, and moved to tail to keep order with other calls
+                if (null != this._pending.remove(key)) {
+                    this._conflatedCount++;
+                }
+                this._pending.put(key, action);
+            } else {
+                this._pending.put(new Object(), action);
+            }
+            if (this._maxBatchSize > 0 && this._pending.size() >= this._maxBatchSize) {
+                flushNow = true;
+            } else if (null == this._scheduledFlush) {
+                this._scheduledFlush = Flusher._SCHEDULER.schedule(this._flushTask, 
+                        this._batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+    
+    private final Runnable _flushTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                // never wait here: flusher thread shared by all forwarders
+                if (_publishLock.tryLock()) {
+                    try {
+                        drainAndPublish(false);
+                    } finally {
+                        _publishLock.unlock();
+                    }
+                }
+                // else: flush in progress drain all pending, later calls armed new timer
+            } catch (Exception e) {
+                LOG.warn("exception when flush batch for {}, detail: {}",
+                        EventQueueForwarder.this, ExceptionUtils.exception2detail(e));
+            }
+        }};
+    
+    /**
+     * publish pending calls as one event, replayed in order on subscriber side
+     */
+    public void flush() {
+        // drain and publish as a whole, so batches drained by timer and by size published in order
+        this._publishLock.lock();
+        try {
+            drainAndPublish(true);
+        } finally {
+            this._publishLock.unlock();
+        }
+    }
+    
+    private void drainAndPublish(final boolean canBlock) {
+        final List<Action1<T>> actions;
+        synchronized (this._pending) {
+            if (null != this._scheduledFlush) {
+                // flushed by size or explicitly: timer of this batch no longer needed
+                this._scheduledFlush.cancel(false);
+                this._scheduledFlush = null;
+            }
+            if (this._pending.isEmpty()) {
+                return;
+            }
+            actions = new ArrayList<>(this._pending.values());
+            this._pending.clear();
+        }
+        publish(actions, canBlock);
+    }
+    
+    MethodTable methodTable() {
+        return this._methods;
+    }
+    
+    /**
+     * @param canBlock true: running in caller's thread, BLOCK subscribers may wait;
+     *          false: shared thread (eg: flusher, transport), BLOCK subscribers drop incoming calls when full
+     */
+    void publish(final List<Action1<T>> actions, final boolean canBlock) {
+        this._eventqueue.publish(new Event(this._eventid, null, 
+                1 == actions.size() ? actions.get(0) : new Batch<T>(actions)));
+        if (!this._boundedSubscribers.isEmpty()) {
+            // BLOCK subscribers share one deadline: publish never stall longer than the largest blockTimeout
+            long maxBlockMillis = 0;
+            if (canBlock) {
+                for (BoundedSubscriber<T> subscriber : this._boundedSubscribers) {
+                    maxBlockMillis = Math.max(maxBlockMillis, subscriber.getBlockTimeoutMillis());
+                }
+            }
+            final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBlockMillis);
+            for (BoundedSubscriber<T> subscriber : this._boundedSubscribers) {
+                for (Action1<T> action : actions) {
+                    subscriber.offer(conflationKeyOf(action), action, deadlineNanos);
+                }
+            }
+        }
+        for (Action1<List<Action1<T>>> tap : this._taps) {
+            tap.call(actions);
+        }
+    }
+    
+    /**
+     * tap receive every published calls (after batching & conflation) in publisher thread
+     */
+    void addTap(final Action1<List<Action1<T>>> tap) {
+        this._taps.add(tap);
+    }
+    
+    void removeTap(final Action1<List<Action1<T>>> tap) {
+        this._taps.remove(tap);
+    }
+    
     @SuppressWarnings("unchecked")
+    private Object conflationKeyOf(final Action1<T> action) {
+        if (action instanceof Invocation) {
+            final Invocation<T> invocation = (Invocation<T>)action;
+            // no conflation configured: distinct calls never replaced
+            return null != this._conflationKey 
+                    ? this._conflationKey.call(invocation.table().methodAt(invocation.methodIndex()), invocation.args())
+                    : null;
+        }
+        return null;
+    }
+    
+    public long getConflatedCount() {
+        synchronized (this._pending) {
+            return this._conflatedCount;
+        }
+    }
+    
+    private static class Batch<T> implements Action1<T> {
+        Batch(final List<Action1<T>> actions) {
+            this._actions = actions;
+        }
+        
+        @Override
+        public void call(final T t) {
+            for (Action1<T> action : this._actions) {
+                action.call(t);
+            }
+        }
+        
+        private final List<Action1<T>> _actions;
+    }
+    
+    private static class Flusher {
+        private static final ScheduledExecutorService _SCHEDULER = 
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "eventqueueforwarder-flusher");
+                    t.setDaemon(true);
+                    return t;
+                }});
+    }
+    
+    /**
+     * conflate calls of same method, only latest one in batch delivered
+     */
+    public static final Func2<Method, Object[], Object> CONFLATE_BY_METHOD = 
+        new Func2<Method, Object[], Object>() {
+            @Override
+            public Object call(final Method method, final Object[] args) {
+                return method;
+            }};
+    
+    /**
+     * conflate calls of same method and same first argument (eg: symbol), 
+     * calls without argument not conflated
+     */
+    public static final Func2<Method, Object[], Object> CONFLATE_BY_METHOD_AND_FIRST_ARG = 
+        new Func2<Method, Object[], Object>() {
+            @Override
+            public Object call(final Method method, final Object[] args) {
+                return (null != args && args.length > 0) ? Arrays.asList(method, args[0]) : null;
+            }};
+    
     public EventQueueForwarder(final Class<T> intf, 
             final EventQueue<Event> eventqueue) {
+        this(intf, eventqueue, 0, 0, null);
+    }
+    
+    /**
+     * batching mode: calls made within batchWindowMillis (or until maxBatchSize calls) published
+     * as ONE event and replayed in order on subscriber side. 
+     * flush after window run on timer thread, so eventqueue should be application or session scope.
+     * @param batchWindowMillis <= 0 means no batching, must be positive when maxBatchSize > 1,
+     *          so tail of burst always flushed
+     * @param maxBatchSize <= 0 means flush only by window
+     * @param conflationKey key of call, calls with same non-null key in one batch conflated 
+     *          (latest value wins), null means no conflation
+     */
+    public EventQueueForwarder(final Class<T> intf, 
+            final EventQueue<Event> eventqueue,
+            final long batchWindowMillis,
+            final int maxBatchSize,
+            final Func2<Method, Object[], Object> conflationKey) {
+        this(intf, eventqueue, UUID.randomUUID().toString(), batchWindowMillis, maxBatchSize, conflationKey);
+    }
+    
+    /**
+     * @param eventid fixed id, forwarders on different nodes bridged by TransportBridge must use the same one
+     */
+    @SuppressWarnings("unchecked")
+    public EventQueueForwarder(final Class<T> intf, 
+            final EventQueue<Event> eventqueue,
+            final String eventid,
+            final long batchWindowMillis,
+            final int maxBatchSize,
+            final Func2<Method, Object[], Object> conflationKey) {
+        if (batchWindowMillis <= 0 && maxBatchSize > 1) {
+            throw new IllegalArgumentException("batchWindowMillis must be positive when maxBatchSize > 1");
+        }
+        checkForwardable(intf);
         this._intfs = new Class[]{intf};
+        this._methods = MethodTable.of(intf);
         this._eventqueue = eventqueue;
-        this._eventid = UUID.randomUUID().toString();
+        this._eventid = eventid;
+        this._batchWindowMillis = batchWindowMillis;
+        this._maxBatchSize = maxBatchSize;
+        this._conflationKey = conflationKey;
     }
     
     @SuppressWarnings("unchecked")
@@ -72,8 +342,70 @@ public class EventQueueForwarder<T> implements InvocationHandler {
         return (T) Proxy.newProxyInstance(cl, this._intfs, this);
     }
     
+    public String eventId() {
+        return this._eventid;
+    }
+    
+    /**
+     * when call from valid Execution, observer subscribed through current desktop's EventQueueHub,
+     * so all forwarders over the same eventqueue share one listener and dispatched by event id
+     */
     public void subscribe(final T observer) {
-        this._eventqueue.subscribe(asEventListener(observer));
+        final EventQueueHub hub = EventQueueHub.ofCurrentDesktop(this._eventqueue);
+        if (null != hub) {
+            subscribe(observer, hub);
+        } else {
+            this._eventqueue.subscribe(asEventListener(observer));
+        }
+    }
+    
+    public void subscribe(final T observer, final EventQueueHub hub) {
+        if (hub.eventqueue() != this._eventqueue) {
+            throw new IllegalArgumentException("hub not built for eventqueue of this forwarder");
+        }
+        hub.subscribe(this._eventid, new EventListener<Event>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public void onEvent(final Event event) throws Exception {
+                ((Action1<T>)event.getData()).call(observer);
+            }});
+    }
+    
+    /**
+     * subscribe observer with bounded buffer, calls delivered on current desktop via server push,
+     * and unsubscribed automatically when desktop cleanup.
+     * NOTE: with BLOCK policy, only calls published in caller's thread (unbatched call, flush by size or flush())
+     *  wait, up to the largest blockTimeoutMillis of subscribers per publish; calls published by
+     *  batch timer or TransportBridge, or from subscriber's own desktop, dropped at once when buffer full.
+     *  CONFLATE policy use conflationKey of this forwarder, without it behave as DROP_OLDEST.
+     * @param blockTimeoutMillis only used by OverflowPolicy.BLOCK
+     */
+    public BoundedSubscriber<T> subscribe(final T observer, 
+            final int capacity, 
+            final BoundedSubscriber.OverflowPolicy policy, 
+            final long blockTimeoutMillis) {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        if (null == desktop) {
+            throw new IllegalStateException("must call from valid Execution");
+        }
+        if (!desktop.isServerPushEnabled()) {
+            desktop.enableServerPush(true);
+        }
+        final BoundedSubscriber<T> subscriber = new BoundedSubscriber<T>(desktop, observer, 
+                capacity, policy, blockTimeoutMillis, 
+                new Action1<BoundedSubscriber<T>>() {
+                    @Override
+                    public void call(final BoundedSubscriber<T> unsubscribed) {
+                        _boundedSubscribers.remove(unsubscribed);
+                    }});
+        this._boundedSubscribers.add(subscriber);
+        Desktops.addActionForCurrentDesktopCleanup(new Action0() {
+            @Override
+            public void call() {
+                subscriber.unsubscribe();
+            }});
+        return subscriber;
     }
     
     private EventListener<Event> asEventListener(final T observer) {
@@ -88,6 +420,19 @@ public class EventQueueForwarder<T> implements InvocationHandler {
     }
 
     private final Class<T>[] _intfs;
+    private final MethodTable _methods;
     private final EventQueue<Event> _eventqueue;
     private final String _eventid;
+    
+    private final List<BoundedSubscriber<T>> _boundedSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Action1<List<Action1<T>>>> _taps = new CopyOnWriteArrayList<>();
+    
+    private final long _batchWindowMillis;
+    private final int _maxBatchSize;
+    private final Func2<Method, Object[], Object> _conflationKey;
+    private final Map<Object, Action1<T>> _pending = new LinkedHashMap<>();
+    // always acquired before _pending
+    private final ReentrantLock _publishLock = new ReentrantLock();
+    private ScheduledFuture<?> _scheduledFlush = null;
+    private long _conflatedCount = 0;
 }
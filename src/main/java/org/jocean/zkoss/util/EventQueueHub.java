@@ -0,0 +1,131 @@
+package org.jocean.zkoss.util;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.Execution;
+import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.event.Event;
+import org.zkoss.zk.ui.event.EventListener;
+import org.zkoss.zk.ui.event.EventQueue;
+
+/**
+ * multiplex many event names (eg: EventQueueForwarder's id) over ONE listener of eventqueue,
+ * event dispatched to listeners of its name through hash index,
+ * so delivery cost depend only on real subscribers of that name.
+ * @author isdom
+ *
+ */
+public class EventQueueHub {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(EventQueueHub.class);
+
+    private static final String HUBS_ATTR = EventQueueHub.class.getName();
+
+    /**
+     * @return hub of eventqueue for current desktop, null if not call from valid Execution
+     */
+    public static EventQueueHub ofCurrentDesktop(final EventQueue<Event> eventqueue) {
+        final Execution exec = Executions.getCurrent();
+        final Desktop desktop = null != exec ? exec.getDesktop() : null;
+        if (null == desktop) {
+            return null;
+        }
+        synchronized (desktop) {
+            @SuppressWarnings("unchecked")
+            Map<EventQueue<Event>, EventQueueHub> hubs =
+                (Map<EventQueue<Event>, EventQueueHub>)desktop.getAttribute(HUBS_ATTR);
+            if (null == hubs) {
+                hubs = new IdentityHashMap<>();
+                desktop.setAttribute(HUBS_ATTR, hubs);
+            }
+            EventQueueHub hub = hubs.get(eventqueue);
+            if (null == hub) {
+                hub = new EventQueueHub(eventqueue);
+                hubs.put(eventqueue, hub);
+            }
+            return hub;
+        }
+    }
+
+    public EventQueueHub(final EventQueue<Event> eventqueue) {
+        this._eventqueue = eventqueue;
+    }
+
+    public EventQueue<Event> eventqueue() {
+        return this._eventqueue;
+    }
+
+    /**
+     * first subscribe register the only listener to eventqueue,
+     * so call it where eventqueue.subscribe is valid (eg: in desktop's Execution)
+     */
+    public void subscribe(final String name, final EventListener<Event> listener) {
+        for (;;) {
+            List<EventListener<Event>> listeners = this._index.get(name);
+            if (null == listeners) {
+                final List<EventListener<Event>> created = new CopyOnWriteArrayList<>();
+                listeners = this._index.putIfAbsent(name, created);
+                if (null == listeners) {
+                    listeners = created;
+                }
+            }
+            listeners.add(listener);
+            // retry if emptied list removed by unsubscribe concurrently
+            if (this._index.get(name) == listeners) {
+                break;
+            }
+            listeners.remove(listener);
+        }
+        synchronized (this) {
+            if (!this._subscribed) {
+                this._eventqueue.subscribe(this._dispatcher);
+                this._subscribed = true;
+            }
+        }
+    }
+
+    public boolean unsubscribe(final String name, final EventListener<Event> listener) {
+        final List<EventListener<Event>> listeners = this._index.get(name);
+        if (null != listeners && listeners.remove(listener)) {
+            if (listeners.isEmpty()) {
+                this._index.remove(name, listeners);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public int getNameCount() {
+        return this._index.size();
+    }
+
+    private final EventListener<Event> _dispatcher = new EventListener<Event>() {
+        @Override
+        public void onEvent(final Event event) throws Exception {
+            final List<EventListener<Event>> listeners = _index.get(event.getName());
+            if (null != listeners) {
+                for (EventListener<Event> listener : listeners) {
+                    try {
+                        listener.onEvent(event);
+                    } catch (Exception e) {
+                        LOG.warn("exception when dispatch event {} to listener {}, detail: {}",
+                                event, listener, ExceptionUtils.exception2detail(e));
+                    }
+                }
+            }
+        }};
+
+    private final EventQueue<Event> _eventqueue;
+    private final ConcurrentMap<String, List<EventListener<Event>>> _index = new ConcurrentHashMap<>();
+    private boolean _subscribed = false;
+}
@@ -0,0 +1,20 @@
+package org.jocean.zkoss.util;
+
+import rx.functions.Action1;
+
+/**
+ * SPI relay encoded invocation frames between nodes, used by TransportBridge.
+ * frame sent on one node should be received by receivers on all OTHER nodes.
+ * @author isdom
+ *
+ */
+public interface ForwarderTransport {
+
+    public void send(final byte[] frame);
+
+    public void addReceiver(final Action1<byte[]> receiver);
+
+    public void removeReceiver(final Action1<byte[]> receiver);
+
+    public void close();
+}
@@ -0,0 +1,50 @@
+package org.jocean.zkoss.util;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.functions.Action1;
+
+/**
+ * compact record of one interface call: (methodIndex in MethodTable, args),
+ * replayed on target through precompiled MethodHandle.
+ * @author isdom
+ *
+ */
+public final class Invocation<T> implements Action1<T> {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(Invocation.class);
+
+    public Invocation(final MethodTable table, final int methodIndex, final Object[] args) {
+        this._table = table;
+        this._methodIndex = methodIndex;
+        this._args = args;
+    }
+
+    public MethodTable table() {
+        return this._table;
+    }
+
+    public int methodIndex() {
+        return this._methodIndex;
+    }
+
+    public Object[] args() {
+        return this._args;
+    }
+
+    @Override
+    public void call(final T t) {
+        try {
+            this._table.invoke(this._methodIndex, t, this._args);
+        } catch (Throwable e) {
+            LOG.warn("exception when invoke {}/{} for args {}, detail: {}",
+                    t, this._table.methodAt(this._methodIndex), this._args, ExceptionUtils.exception2detail(e));
+        }
+    }
+
+    private final MethodTable _table;
+    private final int _methodIndex;
+    private final Object[] _args;
+}
@@ -0,0 +1,209 @@
+package org.jocean.zkoss.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.functions.Action1;
+
+/**
+ * compact frame of invocations:
+ * [eventid(UTF)][table signature(int)][count(int)][methodIndex, argc, tagged args]...
+ * args written by tag, only null, String, primitive wrappers, byte[] and enums (by name,
+ * resolved by parameter type of method) supported: other types rejected (never java serialization,
+ * frames may come from any peer), lengths, method indexes and arg counts read from frame validated.
+ * @author isdom
+ *
+ */
+final class InvocationCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte CHAR = 9;
+    private static final byte BYTES = 10;
+    private static final byte ENUM = 11;
+
+    private InvocationCodec() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    static byte[] encode(final String eventid, final MethodTable table, final List<? extends Action1<?>> actions)
+            throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(eventid);
+        out.writeInt(table.signature());
+        out.writeInt(actions.size());
+        for (Action1<?> action : actions) {
+            final Invocation<?> invocation = (Invocation<?>)action;
+            final Object[] args = invocation.args();
+            out.writeShort(invocation.methodIndex());
+            out.writeByte(null != args ? args.length : 0);
+            if (null != args) {
+                for (Object arg : args) {
+                    writeArg(out, arg);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return eventid of frame
+     */
+    static String eventidOf(final byte[] frame) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(frame)).readUTF();
+    }
+
+    static <T> List<Action1<T>> decode(final byte[] frame, final MethodTable table)
+            throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        in.readUTF();
+        final int signature = in.readInt();
+        if (signature != table.signature()) {
+            throw new IOException("interface signature mismatch: " + signature + " vs " + table.signature());
+        }
+        final int count = in.readInt();
+        // each invocation take at least 3 bytes
+        if (count < 0 || count > in.available() / 3) {
+            throw new IOException("invalid invocation count " + count + ", remaining " + in.available());
+        }
+        final List<Action1<T>> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int methodIndex = in.readUnsignedShort();
+            if (methodIndex >= table.size()) {
+                throw new IOException("invalid method index " + methodIndex + ", table size " + table.size());
+            }
+            final Class<?>[] types = table.methodAt(methodIndex).getParameterTypes();
+            final int argc = in.readUnsignedByte();
+            if (argc != types.length) {
+                throw new IOException("invalid arg count " + argc + " for " + table.methodAt(methodIndex));
+            }
+            final Object[] args = new Object[argc];
+            for (int j = 0; j < args.length; j++) {
+                args[j] = readArg(in, types[j]);
+            }
+            actions.add(new Invocation<T>(table, methodIndex, args));
+        }
+        return actions;
+    }
+
+    private static void writeArg(final DataOutputStream out, final Object arg) throws IOException {
+        if (null == arg) {
+            out.writeByte(NULL);
+        } else if (arg instanceof String) {
+            out.writeByte(STRING);
+            // not writeUTF, which limited to 64K bytes
+            writeBytes(out, ((String)arg).getBytes(StandardCharsets.UTF_8));
+        } else if (arg instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer)arg);
+        } else if (arg instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long)arg);
+        } else if (arg instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double)arg);
+        } else if (arg instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float)arg);
+        } else if (arg instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean)arg);
+        } else if (arg instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short)arg);
+        } else if (arg instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte)arg);
+        } else if (arg instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character)arg);
+        } else if (arg instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[])arg);
+        } else if (arg instanceof Enum) {
+            out.writeByte(ENUM);
+            writeBytes(out, ((Enum<?>)arg).name().getBytes(StandardCharsets.UTF_8));
+        } else {
+            throw new IOException("unsupported arg type " + arg.getClass().getName()
+                    + ", only null, String, primitive wrappers, byte[] and enum can be sent");
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object enumOf(final Class<?> type, final String name) throws IOException {
+        if (!type.isEnum()) {
+            throw new IOException("enum arg " + name + " for non enum parameter " + type.getName());
+        }
+        try {
+            return Enum.valueOf((Class<Enum>)type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("unknown constant " + name + " of " + type.getName());
+        }
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        // in backed by whole frame, available() is exactly the remaining bytes
+        if (length < 0 || length > in.available()) {
+            throw new IOException("invalid length " + length + ", remaining " + in.available());
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param type parameter type of method, enum resolved by it
+     */
+    private static Object readArg(final DataInputStream in, final Class<?> type) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return new String(readBytes(in), StandardCharsets.UTF_8);
+        case INT:
+            return in.readInt();
+        case LONG:
+            return in.readLong();
+        case DOUBLE:
+            return in.readDouble();
+        case FLOAT:
+            return in.readFloat();
+        case BOOLEAN:
+            return in.readBoolean();
+        case SHORT:
+            return in.readShort();
+        case BYTE:
+            return in.readByte();
+        case CHAR:
+            return in.readChar();
+        case BYTES:
+            return readBytes(in);
+        case ENUM:
+            return enumOf(type, new String(readBytes(in), StandardCharsets.UTF_8));
+        default:
+            throw new IOException("unknown arg tag " + tag);
+        }
+    }
+}
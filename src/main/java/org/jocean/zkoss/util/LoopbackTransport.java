@@ -0,0 +1,70 @@
+package org.jocean.zkoss.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.functions.Action1;
+
+/**
+ * in-JVM transport, frames sent delivered synchronously to receivers of all connected peers,
+ * for local test of TransportBridge.
+ * @author isdom
+ *
+ */
+public class LoopbackTransport implements ForwarderTransport {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(LoopbackTransport.class);
+
+    /**
+     * connect two transports in both directions
+     */
+    public void connect(final LoopbackTransport peer) {
+        if (!this._peers.contains(peer)) {
+            this._peers.add(peer);
+            peer.connect(this);
+        }
+    }
+
+    @Override
+    public void send(final byte[] frame) {
+        for (LoopbackTransport peer : this._peers) {
+            peer.deliver(frame);
+        }
+    }
+
+    private void deliver(final byte[] frame) {
+        for (Action1<byte[]> receiver : this._receivers) {
+            try {
+                receiver.call(frame);
+            } catch (Exception e) {
+                LOG.warn("exception when deliver frame to {}, detail: {}",
+                        receiver, ExceptionUtils.exception2detail(e));
+            }
+        }
+    }
+
+    @Override
+    public void addReceiver(final Action1<byte[]> receiver) {
+        this._receivers.add(receiver);
+    }
+
+    @Override
+    public void removeReceiver(final Action1<byte[]> receiver) {
+        this._receivers.remove(receiver);
+    }
+
+    @Override
+    public void close() {
+        for (LoopbackTransport peer : this._peers) {
+            peer._peers.remove(this);
+        }
+        this._peers.clear();
+    }
+
+    private final List<LoopbackTransport> _peers = new CopyOnWriteArrayList<>();
+    private final List<Action1<byte[]>> _receivers = new CopyOnWriteArrayList<>();
+}
@@ -0,0 +1,118 @@
+package org.jocean.zkoss.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * per-interface table of methods, ordered by name and parameter types (same index in every JVM),
+ * each method resolved once to a MethodHandle invoked as (target, Object[] args).
+ * hashCode/equals/toString of java.lang.Object mapped to negative indexes.
+ * @author isdom
+ *
+ */
+public final class MethodTable {
+
+    public static final int HASHCODE = -1;
+    public static final int EQUALS = -2;
+    public static final int TOSTRING = -3;
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final MethodType _INVOKER_TYPE =
+            MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private static final ClassValue<MethodTable> _TABLES = new ClassValue<MethodTable>() {
+        @Override
+        protected MethodTable computeValue(final Class<?> intf) {
+            return new MethodTable(intf);
+        }};
+
+    public static MethodTable of(final Class<?> intf) {
+        return _TABLES.get(intf);
+    }
+
+    private MethodTable(final Class<?> intf) {
+        if (!intf.isInterface()) {
+            throw new IllegalArgumentException(intf + " is not interface");
+        }
+        final Method[] methods = intf.getMethods().clone();
+        Arrays.sort(methods, new Comparator<Method>() {
+            @Override
+            public int compare(final Method m1, final Method m2) {
+                final int byName = m1.getName().compareTo(m2.getName());
+                return 0 != byName ? byName
+                    : Arrays.toString(m1.getParameterTypes()).compareTo(Arrays.toString(m2.getParameterTypes()));
+            }});
+        this._methods = methods;
+        this._signature = Arrays.toString(methods).hashCode();
+        this._invokers = new MethodHandle[methods.length];
+        for (int idx = 0; idx < methods.length; idx++) {
+            this._invokers[idx] = invokerOf(methods[idx]);
+            this._indexes.put(methods[idx], idx);
+        }
+        try {
+            this._indexes.put(Object.class.getMethod("hashCode"), HASHCODE);
+            this._indexes.put(Object.class.getMethod("equals", Object.class), EQUALS);
+            this._indexes.put(Object.class.getMethod("toString"), TOSTRING);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle invokerOf(final Method method) {
+        MethodHandle mh;
+        try {
+            mh = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // eg: method of non-public interface
+            method.setAccessible(true);
+            try {
+                mh = MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException e1) {
+                throw new IllegalArgumentException("can't access method " + method, e1);
+            }
+        }
+        return mh.asSpreader(Object[].class, method.getParameterTypes().length)
+                .asType(_INVOKER_TYPE);
+    }
+
+    /**
+     * @return index of method, or HASHCODE/EQUALS/TOSTRING for methods of Object, NOT_FOUND if unknown
+     */
+    public int indexOf(final Method method) {
+        final Integer idx = this._indexes.get(method);
+        return null != idx ? idx : NOT_FOUND;
+    }
+
+    /**
+     * @return hash of all methods in index order, same only if interfaces are identical
+     */
+    public int signature() {
+        return this._signature;
+    }
+
+    public int size() {
+        return this._methods.length;
+    }
+
+    public Method methodAt(final int idx) {
+        return this._methods[idx];
+    }
+
+    public void invoke(final int idx, final Object target, final Object[] args) throws Throwable {
+        final Object[] actual = null != args ? args : NO_ARGS;
+        this._invokers[idx].invokeExact(target, actual);
+    }
+
+    private final Method[] _methods;
+    private final int _signature;
+    private final MethodHandle[] _invokers;
+    private final Map<Method, Integer> _indexes = new HashMap<>();
+}
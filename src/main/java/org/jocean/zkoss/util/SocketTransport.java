@@ -0,0 +1,241 @@
+package org.jocean.zkoss.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.functions.Action1;
+
+/**
+ * TCP transport: every node listen() and/or connect() to the other nodes (full mesh, frames not relayed).
+ * frames written as [length][bytes], each connection has one writer thread
+ * which drain all pending frames and flush them together (batch outgoing invocations).
+ * NOTE: peers NOT authenticated, any one connected can publish calls to local subscribers.
+ * @author isdom
+ *
+ */
+public class SocketTransport implements ForwarderTransport {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(SocketTransport.class);
+
+    private static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    public SocketTransport() {
+        this(8192);
+    }
+
+    /**
+     * @param maxPendingFrames frames queued for each connection, more frames dropped (counted)
+     */
+    public SocketTransport(final int maxPendingFrames) {
+        this._maxPendingFrames = maxPendingFrames;
+    }
+
+    /**
+     * address must be on a trusted interface (loopback or private cluster network), never a public one:
+     * connections accepted without authentication.
+     * @return actual bind port
+     */
+    public int listen(final InetSocketAddress address) throws IOException {
+        final ServerSocket server = new ServerSocket();
+        server.bind(address);
+        this._servers.add(server);
+        startThread("sockettransport-accept-" + server.getLocalPort(), new Runnable() {
+            @Override
+            public void run() {
+                while (!server.isClosed()) {
+                    try {
+                        addConnection(server.accept());
+                    } catch (IOException e) {
+                        if (!server.isClosed()) {
+                            LOG.warn("exception when accept on {}, detail: {}",
+                                    server, ExceptionUtils.exception2detail(e));
+                        }
+                    }
+                }
+            }});
+        return server.getLocalPort();
+    }
+
+    public void connect(final InetSocketAddress address) throws IOException {
+        final Socket socket = new Socket();
+        socket.connect(address);
+        addConnection(socket);
+    }
+
+    private void addConnection(final Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        final Connection connection = new Connection(socket);
+        this._connections.add(connection);
+        connection.start();
+    }
+
+    @Override
+    public void send(final byte[] frame) {
+        for (Connection connection : this._connections) {
+            if (!connection._outbox.offer(frame)) {
+                this._droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void addReceiver(final Action1<byte[]> receiver) {
+        this._receivers.add(receiver);
+    }
+
+    @Override
+    public void removeReceiver(final Action1<byte[]> receiver) {
+        this._receivers.remove(receiver);
+    }
+
+    @Override
+    public void close() {
+        for (ServerSocket server : this._servers) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        this._servers.clear();
+        for (Connection connection : this._connections) {
+            connection.close();
+        }
+    }
+
+    public int getConnectionCount() {
+        return this._connections.size();
+    }
+
+    public long getDroppedCount() {
+        return this._droppedCount.get();
+    }
+
+    public long getFlushCount() {
+        return this._flushCount.get();
+    }
+
+    private void receive(final byte[] frame) {
+        for (Action1<byte[]> receiver : this._receivers) {
+            try {
+                receiver.call(frame);
+            } catch (Exception e) {
+                LOG.warn("exception when deliver frame to {}, detail: {}",
+                        receiver, ExceptionUtils.exception2detail(e));
+            }
+        }
+    }
+
+    private static void startThread(final String name, final Runnable runnable) {
+        final Thread t = new Thread(runnable, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private class Connection {
+        Connection(final Socket socket) {
+            this._socket = socket;
+            this._outbox = new ArrayBlockingQueue<>(_maxPendingFrames);
+        }
+
+        void start() {
+            startThread("sockettransport-read-" + this._socket.getRemoteSocketAddress(), new Runnable() {
+                @Override
+                public void run() {
+                    readLoop();
+                }});
+            startThread("sockettransport-write-" + this._socket.getRemoteSocketAddress(), new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }});
+        }
+
+        private void readLoop() {
+            try {
+                final DataInputStream in = new DataInputStream(new BufferedInputStream(this._socket.getInputStream()));
+                while (!this._socket.isClosed()) {
+                    final int length = in.readInt();
+                    if (length < 0 || length > MAX_FRAME_SIZE) {
+                        throw new IOException("invalid frame length " + length);
+                    }
+                    final byte[] frame = new byte[length];
+                    in.readFully(frame);
+                    receive(frame);
+                }
+            } catch (IOException e) {
+                if (!this._socket.isClosed()) {
+                    LOG.warn("exception when read from {}, detail: {}",
+                            this._socket, ExceptionUtils.exception2detail(e));
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void writeLoop() {
+            final List<byte[]> batch = new ArrayList<>();
+            try {
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(this._socket.getOutputStream()));
+                while (!this._socket.isClosed()) {
+                    batch.add(this._outbox.take());
+                    this._outbox.drainTo(batch);
+                    for (byte[] frame : batch) {
+                        out.writeInt(frame.length);
+                        out.write(frame);
+                    }
+                    out.flush();
+                    _flushCount.incrementAndGet();
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (!this._socket.isClosed()) {
+                    LOG.warn("exception when write to {}, detail: {}",
+                            this._socket, ExceptionUtils.exception2detail(e));
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            _connections.remove(this);
+            try {
+                this._socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            // wake up writer
+            this._outbox.clear();
+            this._outbox.offer(new byte[0]);
+        }
+
+        private final Socket _socket;
+        private final BlockingQueue<byte[]> _outbox;
+    }
+
+    private final int _maxPendingFrames;
+    private final List<ServerSocket> _servers = new CopyOnWriteArrayList<>();
+    private final List<Connection> _connections = new CopyOnWriteArrayList<>();
+    private final List<Action1<byte[]>> _receivers = new CopyOnWriteArrayList<>();
+    private final AtomicLong _droppedCount = new AtomicLong(0);
+    private final AtomicLong _flushCount = new AtomicLong(0);
+}
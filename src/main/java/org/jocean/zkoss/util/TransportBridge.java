@@ -0,0 +1,78 @@
+package org.jocean.zkoss.util;
+
+import java.util.List;
+
+import org.jocean.idiom.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rx.functions.Action1;
+
+/**
+ * relay calls of EventQueueForwarder to forwarders with the same eventid on other nodes:
+ * calls published locally encoded and sent through ForwarderTransport,
+ * frames received published to local forwarder (not sent again),
+ * so subscribers on every node keep the same subscribe(observer) semantics.
+ * received calls published in transport's thread, so eventqueue should be application scope.
+ * @author isdom
+ *
+ */
+public class TransportBridge<T> {
+    private static final Logger LOG =
+            LoggerFactory.getLogger(TransportBridge.class);
+
+    public TransportBridge(final EventQueueForwarder<T> forwarder, final ForwarderTransport transport) {
+        this._forwarder = forwarder;
+        this._transport = transport;
+        this._forwarder.addTap(this._outbound);
+        this._transport.addReceiver(this._inbound);
+    }
+
+    public void close() {
+        this._forwarder.removeTap(this._outbound);
+        this._transport.removeReceiver(this._inbound);
+    }
+
+    private final Action1<List<Action1<T>>> _outbound = new Action1<List<Action1<T>>>() {
+        @Override
+        public void call(final List<Action1<T>> actions) {
+            if (_receiving.get()) {
+                return;
+            }
+            try {
+                _transport.send(InvocationCodec.encode(_forwarder.eventId(), _forwarder.methodTable(), actions));
+            } catch (Exception e) {
+                LOG.warn("exception when send calls of {}, detail: {}",
+                        _forwarder, ExceptionUtils.exception2detail(e));
+            }
+        }};
+
+    private final Action1<byte[]> _inbound = new Action1<byte[]>() {
+        @Override
+        public void call(final byte[] frame) {
+            try {
+                if (!_forwarder.eventId().equals(InvocationCodec.eventidOf(frame))) {
+                    return;
+                }
+                final List<Action1<T>> actions = InvocationCodec.decode(frame, _forwarder.methodTable());
+                _receiving.set(true);
+                try {
+                    // transport thread shared by all bridges, never wait for BLOCK subscribers
+                    _forwarder.publish(actions, false);
+                } finally {
+                    _receiving.set(false);
+                }
+            } catch (Exception e) {
+                LOG.warn("exception when receive frame for {}, detail: {}",
+                        _forwarder, ExceptionUtils.exception2detail(e));
+            }
+        }};
+
+    private final EventQueueForwarder<T> _forwarder;
+    private final ForwarderTransport _transport;
+    private final ThreadLocal<Boolean> _receiving = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return false;
+        }};
+}
@@ -0,0 +1,94 @@
+package org.jocean.zkoss.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletContext;
+
+import org.zkoss.zk.au.AuRequest;
+import org.zkoss.zk.ui.Desktop;
+import org.zkoss.zk.ui.Session;
+import org.zkoss.zk.ui.WebApp;
+import org.zkoss.zk.ui.util.Monitor;
+import org.zkoss.zk.ui.util.WebAppInit;
+
+/**
+ * count live desktops, live sessions and server-push backlog (actions queued by BoundedSubscriber
+ * not delivered yet) into AtomicLong servlet context attributes, so container (eg: JettyWebapp)
+ * read them across classloader by JDK type only. counters are per webapp (looked up by servlet context
+ * of desktop/session), provided by container before start or created when first used.
+ * NOT registered automatically (zk allow only one Monitor), enable in WEB-INF/zk.xml of webapp:
+ * <pre>
+ * &lt;listener&gt;
+ *     &lt;listener-class&gt;org.jocean.zkoss.util.ZkMetricsMonitor&lt;/listener-class&gt;
+ * &lt;/listener&gt;
+ * </pre>
+ * @author isdom
+ *
+ */
+public class ZkMetricsMonitor implements Monitor, WebAppInit {
+
+    public static final String LIVE_DESKTOPS_ATTR = "org.jocean.zkoss.metrics.liveDesktops";
+    public static final String LIVE_SESSIONS_ATTR = "org.jocean.zkoss.metrics.liveSessions";
+    public static final String PUSH_BACKLOG_ATTR = "org.jocean.zkoss.metrics.pushBacklog";
+
+    /**
+     * @return push backlog counter of wapp, updated by BoundedSubscriber even without this monitor
+     */
+    static AtomicLong pushBacklogOf(final WebApp wapp) {
+        return counterOf(wapp, PUSH_BACKLOG_ATTR);
+    }
+
+    private static AtomicLong counterOf(final WebApp wapp, final String name) {
+        final ServletContext servletContext = wapp.getServletContext();
+        final Object counter = servletContext.getAttribute(name);
+        if (counter instanceof AtomicLong) {
+            return (AtomicLong)counter;
+        }
+        synchronized (ZkMetricsMonitor.class) {
+            final Object provided = servletContext.getAttribute(name);
+            if (provided instanceof AtomicLong) {
+                return (AtomicLong)provided;
+            }
+            final AtomicLong created = new AtomicLong(0);
+            servletContext.setAttribute(name, created);
+            return created;
+        }
+    }
+
+    @Override
+    public void init(final WebApp wapp) throws Exception {
+        // make counters visible to container from start
+        counterOf(wapp, LIVE_DESKTOPS_ATTR);
+        counterOf(wapp, LIVE_SESSIONS_ATTR);
+        counterOf(wapp, PUSH_BACKLOG_ATTR);
+    }
+
+    @Override
+    public void sessionCreated(final Session sess) {
+        counterOf(sess.getWebApp(), LIVE_SESSIONS_ATTR).incrementAndGet();
+    }
+
+    @Override
+    public void sessionDestroyed(final Session sess) {
+        counterOf(sess.getWebApp(), LIVE_SESSIONS_ATTR).decrementAndGet();
+    }
+
+    @Override
+    public void desktopCreated(final Desktop desktop) {
+        counterOf(desktop.getWebApp(), LIVE_DESKTOPS_ATTR).incrementAndGet();
+    }
+
+    @Override
+    public void desktopDestroyed(final Desktop desktop) {
+        counterOf(desktop.getWebApp(), LIVE_DESKTOPS_ATTR).decrementAndGet();
+    }
+
+    @Override
+    public void beforeUpdate(final Desktop desktop, final List<AuRequest> requests) {
+    }
+
+    @Override
+    public void afterUpdate(final Desktop desktop) {
+    }
+}